@@ -1,28 +1,46 @@
 package player;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Queue;
 import java.util.Random;
 import java.util.Scanner;
-import java.util.function.BiFunction;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import jdk.nashorn.internal.ir.annotations.Immutable;
 
 public final class Player {
 
+    // CodinGame allows 1 s for the first turn and 100 ms for the others, the rest is left for reading and writing
+    private static final long FIRST_TURN_BUDGET = TimeUnit.MILLISECONDS.toNanos(900);
+    private static final long TURN_BUDGET = TimeUnit.MILLISECONDS.toNanos(80);
+
+    // searching ahead while the referee plays keeps a thread busy between turns, so it is only done on demand
+    private static final String PONDER_OPTION = "--ponder";
+    // opponents are simulated as staying unless told to expect them to bomb greedily
+    private static final String GREEDY_OPPONENTS_OPTION = "--greedy-opponents";
+
     public static void main(String args[]) {
 
         InputSupplier in = new InputReader(new Scanner(System.in));
 
         InputRepository repo = new InputRepository(in);
-        AI ai = new BlockAwareAI(repo);
+        List<String> options = Arrays.asList(args);
+        OpponentPolicy opponents =
+                options.contains(GREEDY_OPPONENTS_OPTION) ? new GreedyOpponents() : new StayOpponents();
+        AI ai = new BlockAwareAI(repo, opponents, FIRST_TURN_BUDGET, TURN_BUDGET);
+        boolean pondering = options.contains(PONDER_OPTION);
 
         while (true) {
             ai.updateRepository();
@@ -30,6 +48,11 @@ public final class Player {
             for (Action action : actions) {
                 System.out.println(action.asString());
             }
+
+            // the referee plays the opponents' turn while the next input is awaited
+            if (pondering) {
+                ai.ponder();
+            }
         }
     }
 
@@ -49,16 +72,55 @@ public final class Player {
                 int destroyedBoxWeight,
                 InputRepository repo) {
 
-            super(32, 40, 5, .7, .001, repo,
-                    (ge, genes) ->
-                    evaluate(
+            this(
+                    deadBombermanWeight,
+                    bombItemWeight,
+                    explosionRangeWeight,
+                    freedomWeight,
+                    destroyedBoxWeight,
+                    RouletteSelection::new,
+                    NO_ELITES,
+                    SINGLE_ISLAND,
+                    1,
+                    NO_MIGRANTS,
+                    repo,
+                    new StayOpponents(),
+                    new Random(),
+                    null,
+                    NO_TIME_BUDGET,
+                    NO_TIME_BUDGET);
+        }
+
+        public BlockAwareAI(
+                int deadBombermanWeight,
+                int bombItemWeight,
+                int explosionRangeWeight,
+                int freedomWeight,
+                int destroyedBoxWeight,
+                Supplier<Selection> selections,
+                int elites,
+                int islands,
+                int migrationInterval,
+                int migrants,
+                InputRepository repo,
+                OpponentPolicy opponents,
+                Random random,
+                ForkJoinPool workers,
+                long firstTurnBudget,
+                long turnBudget) {
+
+            super(32, 40, 5, .7, .001, DEFAULT_CARRY_OVER_RATE, selections, elites, islands, migrationInterval, migrants, repo,
+                    evaluation(
                             deadBombermanWeight,
                             bombItemWeight,
                             explosionRangeWeight,
                             freedomWeight,
-                            destroyedBoxWeight,
-                            ge,
-                            genes));
+                            destroyedBoxWeight),
+                    opponents,
+                    random,
+                    workers,
+                    firstTurnBudget,
+                    turnBudget);
 
             this.deadBombermanWeight = deadBombermanWeight;
             this.bombItemWeight = bombItemWeight;
@@ -68,7 +130,68 @@ public final class Player {
         }
 
         public BlockAwareAI(InputRepository repo) {
-            this(500, 45, 30, 10, 60, repo);
+            this(repo, NO_TIME_BUDGET, NO_TIME_BUDGET);
+        }
+
+        public BlockAwareAI(InputRepository repo, long firstTurnBudget, long turnBudget) {
+            this(repo, new StayOpponents(), firstTurnBudget, turnBudget);
+        }
+
+        public BlockAwareAI(InputRepository repo, OpponentPolicy opponents, long firstTurnBudget, long turnBudget) {
+            this(
+                    500,
+                    45,
+                    30,
+                    10,
+                    60,
+                    RouletteSelection::new,
+                    NO_ELITES,
+                    SINGLE_ISLAND,
+                    1,
+                    NO_MIGRANTS,
+                    repo,
+                    opponents,
+                    new Random(),
+                    null,
+                    firstTurnBudget,
+                    turnBudget);
+        }
+
+        static RoundEvaluation evaluation(
+                int deadBombermanWeight,
+                int bombItemWeight,
+                int explosionRangeWeight,
+                int freedomWeight,
+                int destroyedBoxWeight) {
+
+            return new RoundEvaluation() {
+                @Override
+                public double evaluate(RoundStats before, RoundStats after, int round, int rounds) {
+                    return BlockAwareAI.evaluate(
+                            deadBombermanWeight,
+                            bombItemWeight,
+                            explosionRangeWeight,
+                            freedomWeight,
+                            destroyedBoxWeight,
+                            before,
+                            after,
+                            round,
+                            rounds);
+                }
+
+                @Override
+                public double bound(RoundStats stats, int round, int rounds) {
+                    return BlockAwareAI.bound(
+                            deadBombermanWeight,
+                            bombItemWeight,
+                            explosionRangeWeight,
+                            freedomWeight,
+                            destroyedBoxWeight,
+                            stats,
+                            round,
+                            rounds);
+                }
+            };
         }
 
         private static double evaluate(
@@ -77,43 +200,55 @@ public final class Player {
                 int explosionRangeWeight,
                 int freedomWeight,
                 int destroyedBoxWeight,
-                HypersonicGameEngine gameEngine, SimplifiedAction[] genes) {
-
-            Bomberman bomberman = gameEngine.getBombermen()[0];
+                RoundStats before,
+                RoundStats after,
+                int round,
+                int rounds) {
 
-            double totalScore = 0;
+            int roundScore = 0;
+            int roundWeight = rounds - round;
 
-            for (int i = 0; i < genes.length; i++) {
+            if (!after.isDead()) {
+                roundScore += deadBombermanWeight;
+            }
 
-                int pastAvailableBombs = bomberman.getTotalAvailableBombs();
-                int pastExplosionRange = bomberman.getExplosionRange();
-                int pastTotalDestroyedBoxes = gameEngine.getTotalDestroyedBoxes(bomberman.getId());
+            roundScore += (after.getTotalAvailableBombs() - before.getTotalAvailableBombs()) * bombItemWeight;
+            roundScore += (after.getExplosionRange() - before.getExplosionRange()) * explosionRangeWeight;
 
-                SimplifiedAction action = genes[i];
-                gameEngine.perform(true, action);
+            roundScore += after.getDegreesOfFreedom() * freedomWeight;
 
-                int roundScore = 0;
-                int roundWeight = genes.length - i;
+            roundScore *= roundWeight;
 
-                if (!gameEngine.isBombermenDead(bomberman.getId())) {
-                    roundScore += deadBombermanWeight;
-                }
+            // take destroyed boxes into consideration
+            int destroyedBoxes = after.getTotalDestroyedBoxes() - before.getTotalDestroyedBoxes();
+            roundScore += destroyedBoxes * (roundWeight + 8) * destroyedBoxWeight;
 
-                roundScore += (bomberman.getTotalAvailableBombs() - pastAvailableBombs) * bombItemWeight;
-                roundScore += (bomberman.getExplosionRange() - pastExplosionRange) * explosionRangeWeight;
+            return roundScore;
+        }
 
-                roundScore += gameEngine.getDegreesOfFeedom(bomberman) * freedomWeight;
+        private static double bound(
+                int deadBombermanWeight,
+                int bombItemWeight,
+                int explosionRangeWeight,
+                int freedomWeight,
+                int destroyedBoxWeight,
+                RoundStats stats,
+                int round,
+                int rounds) {
 
-                roundScore *= roundWeight;
+            // the rounds left weigh n, n - 1, ..., 1
+            int left = rounds - round;
+            int weights = left * (left + 1) / 2;
 
-                // take destroyed boxes into consideration
-                int totalDestroyedBoxes = gameEngine.getTotalDestroyedBoxes(bomberman.getId());
-                roundScore += (totalDestroyedBoxes - pastTotalDestroyedBoxes) * (roundWeight + 8) * destroyedBoxWeight;
+            // a round picks at most one item, and the player has at most four places to move to
+            int roundScore = Math.max(0, deadBombermanWeight)
+                    + Math.max(0, Math.max(bombItemWeight, explosionRangeWeight))
+                    + 4 * Math.max(0, freedomWeight);
 
-                totalScore += roundScore;
-            }
+            // every box left may be destroyed, at most with the weight of the first round left
+            int boxScore = stats.getRemainingBoxes() * (left + 8) * Math.max(0, destroyedBoxWeight);
 
-            return totalScore;
+            return (double) roundScore * weights + boxScore;
         }
 
         @Override
@@ -131,6 +266,18 @@ public final class Player {
 
     public static class DefaultGeneticAI extends GeneticAI {
 
+        private static final RoundEvaluation EVALUATION = new RoundEvaluation() {
+            @Override
+            public double evaluate(RoundStats before, RoundStats after, int round, int rounds) {
+                return DefaultGeneticAI.evaluate(before, after, round, rounds);
+            }
+
+            @Override
+            public boolean readsAccessiblePlaces() {
+                return true;
+            }
+        };
+
         public DefaultGeneticAI(
                 int geneLength,
                 int popSize,
@@ -139,51 +286,74 @@ public final class Player {
                 double mutationRate,
                 InputRepository repo) {
 
-            super(geneLength, popSize, generations, crossoverRate, mutationRate, repo, DefaultGeneticAI::evaluate);
+            super(geneLength, popSize, generations, crossoverRate, mutationRate, repo, EVALUATION);
         }
 
-        public DefaultGeneticAI(InputRepository repo) {
-            super(16, 40, 5, .7, .001, repo, DefaultGeneticAI::evaluate);
+        public DefaultGeneticAI(
+                int geneLength,
+                int popSize,
+                int generations,
+                double crossoverRate,
+                double mutationRate,
+                double carryOverRate,
+                Supplier<Selection> selections,
+                int elites,
+                int islands,
+                int migrationInterval,
+                int migrants,
+                InputRepository repo,
+                OpponentPolicy opponents,
+                Random random,
+                ForkJoinPool workers,
+                long firstTurnBudget,
+                long turnBudget) {
+
+            super(
+                    geneLength,
+                    popSize,
+                    generations,
+                    crossoverRate,
+                    mutationRate,
+                    carryOverRate,
+                    selections,
+                    elites,
+                    islands,
+                    migrationInterval,
+                    migrants,
+                    repo,
+                    EVALUATION,
+                    opponents,
+                    random,
+                    workers,
+                    firstTurnBudget,
+                    turnBudget);
         }
 
-        private static double evaluate(HypersonicGameEngine gameEngine, SimplifiedAction[] genes) {
-            Bomberman bomberman = gameEngine.getBombermen()[0];
-
-            double totalScore = 0;
-
-            for (int i = 0; i < genes.length; i++) {
-
-                int pastAvailableBombs = bomberman.getTotalAvailableBombs();
-                int pastExplosionRange = bomberman.getExplosionRange();
-                int pastAvailablePlaces = gameEngine.accessiblePlacesFor(bomberman.getId());
-
-                SimplifiedAction action = genes[i];
-                gameEngine.perform(true, action);
-
-                int roundScore = 0;
-                int roundWeight = genes.length - i;
+        public DefaultGeneticAI(InputRepository repo) {
+            super(16, 40, 5, .7, .001, repo, EVALUATION);
+        }
 
-                if (!gameEngine.isBombermenDead(bomberman.getId())) {
-                    roundScore += 500;
-                }
+        private static double evaluate(RoundStats before, RoundStats after, int round, int rounds) {
 
-                roundScore += (bomberman.getTotalAvailableBombs() - pastAvailableBombs) * 10;
-                roundScore += (bomberman.getExplosionRange() - pastExplosionRange) * 10;
+            int roundScore = 0;
+            int roundWeight = rounds - round;
 
-                int accessiblePlacesFor = gameEngine.accessiblePlacesFor(bomberman.getId());
+            if (!after.isDead()) {
+                roundScore += 500;
+            }
 
-                if (accessiblePlacesFor > pastAvailablePlaces) {
-                    roundScore += (accessiblePlacesFor - pastAvailablePlaces) * 5;
-                }
+            roundScore += (after.getTotalAvailableBombs() - before.getTotalAvailableBombs()) * 10;
+            roundScore += (after.getExplosionRange() - before.getExplosionRange()) * 10;
 
-                roundScore += gameEngine.getDegreesOfFeedom(bomberman) * 25;
+            if (after.getAccessiblePlaces() > before.getAccessiblePlaces()) {
+                roundScore += (after.getAccessiblePlaces() - before.getAccessiblePlaces()) * 5;
+            }
 
-                roundScore *= roundWeight;
+            roundScore += after.getDegreesOfFreedom() * 25;
 
-                totalScore += roundScore;
-            }
+            roundScore *= roundWeight;
 
-            return totalScore;
+            return roundScore;
         }
 
         @Override
@@ -196,42 +366,167 @@ public final class Player {
 
         private static final SimplifiedAction[] POSSIBLE_ACTIONS = SimplifiedAction.values();
 
-        private final Random random;
+        // chromosomes scored by a worker in one go, each batch costs a copy of the engine
+        private static final int EVALUATION_BATCH = 4;
+
+        protected static final double DEFAULT_CARRY_OVER_RATE = .25;
+
+        protected static final int NO_ELITES = 0;
+
+        protected static final int SINGLE_ISLAND = 1;
+
+        protected static final int NO_MIGRANTS = 0;
+
+        private static final double NO_CUTOFF = Double.NEGATIVE_INFINITY;
+
         private final InputRepository repo;
+        private final OpponentPolicy opponents;
+        private final EnginePool engines;
+        private final ForkJoinPool workers;
+        private final EnginePool workerEngines;
+        private final ThreadLocal<PrefixWalk> workerWalks;
         private final int geneLength;
         private final int popSize;
         private final int generations;
         private final double crossoverRate;
         private final double mutationRate;
-        private final BiFunction<HypersonicGameEngine, SimplifiedAction[], Double> evaluationFunction;
+        private final double carryOverRate;
+        private final int elites;
+        private final Island[] islands;
+        private final int migrationInterval;
+        private final int migrants;
+
+        // the state the last turn was searched from, and the action played then
+        private HypersonicGameEngine lastState;
+        private SimplifiedAction lastAction;
+        // the state the action played is expected to lead to, and its state hash, which pondering breeds from
+        private HypersonicGameEngine expectedState;
+        private final SimplifiedAction[] expectedOthers = new SimplifiedAction[HypersonicGameEngine.MAX_BOMBERMEN - 1];
+        private long expectedHash;
+        private ExecutorService ponderer;
+        private Future<?> pondering;
+        private volatile boolean ponderingStopped;
+
+        public GeneticAI(
+                int geneLength,
+                int popSize,
+                int generations,
+                double crossoverRate,
+                double mutationRate,
+                InputRepository repo,
+                RoundEvaluation evaluation) {
+
+            this(
+                    geneLength,
+                    popSize,
+                    generations,
+                    crossoverRate,
+                    mutationRate,
+                    DEFAULT_CARRY_OVER_RATE,
+                    RouletteSelection::new,
+                    NO_ELITES,
+                    SINGLE_ISLAND,
+                    1,
+                    NO_MIGRANTS,
+                    repo,
+                    evaluation,
+                    new StayOpponents(),
+                    new Random(),
+                    null,
+                    NO_TIME_BUDGET,
+                    NO_TIME_BUDGET);
+        }
 
+        /**
+         * Builds an AI that scores its chromosomes on the workers. Only scoring is spread over them: the genetic
+         * operators all run on the calling thread, so the same random sequence finds the same moves whatever the
+         * workers.<br>
+         * With more than one island, each island evolves a population of its own, with a random sequence drawn from
+         * the given one, and the islands are what is spread over the workers. Every few generations, all islands
+         * stop and the best chromosomes of each replace the worst ones of the next island, around a ring. Islands
+         * only wait for each other then, so they also find the same moves whatever the workers.<br>
+         * With a time budget, generations are bred until the budget of the turn runs out rather than a fixed number
+         * of times, and the best chromosome scored so far is played.
+         *
+         * @param popSize the number of chromosomes of each island
+         * @param carryOverRate the share of the population seeded with the best chromosomes of the last turn
+         * @param selections supplies the selection of each island, which picks the parents of every offspring
+         * @param elites the number of best chromosomes kept as they are in the next generation
+         * @param islands the number of populations evolved apart, or {@link #SINGLE_ISLAND}
+         * @param migrationInterval the generations bred by the islands between migrations
+         * @param migrants the number of chromosomes each island sends to the next one at every migration
+         * @param opponents plays every bomberman of the repository but the player
+         * @param random drives the genetic operators
+         * @param workers the pool chromosomes are scored on, or {@code null} to score them on the calling thread
+         * @param firstTurnBudget the nanoseconds the first turn may take, or {@link #NO_TIME_BUDGET}
+         * @param turnBudget the nanoseconds every other turn may take, or {@link #NO_TIME_BUDGET}
+         */
         public GeneticAI(
                 int geneLength,
                 int popSize,
                 int generations,
                 double crossoverRate,
                 double mutationRate,
+                double carryOverRate,
+                Supplier<Selection> selections,
+                int elites,
+                int islands,
+                int migrationInterval,
+                int migrants,
                 InputRepository repo,
-                BiFunction<HypersonicGameEngine, SimplifiedAction[], Double> evaluationFunction) {
+                RoundEvaluation evaluation,
+                OpponentPolicy opponents,
+                Random random,
+                ForkJoinPool workers,
+                long firstTurnBudget,
+                long turnBudget) {
+
+            super(repo, firstTurnBudget, turnBudget);
+
+            if (islands < 1) {
+                throw new IllegalArgumentException("There should be at least one island");
+            }
+
+            if (migrationInterval < 1) {
+                throw new IllegalArgumentException("Islands should breed at least one generation between migrations");
+            }
+
+            if (migrants < 0 || migrants > popSize) {
+                throw new IllegalArgumentException("Migrants should be between 0 and the population of an island");
+            }
 
-            super(repo);
             this.geneLength = geneLength;
             this.popSize = popSize;
             this.generations = generations;
             this.crossoverRate = crossoverRate;
             this.mutationRate = mutationRate;
-            this.evaluationFunction = evaluationFunction;
-            this.random = new Random();
+            this.carryOverRate = carryOverRate;
+            this.elites = elites;
+            this.migrationInterval = migrationInterval;
+            this.migrants = migrants;
             this.repo = repo;
+            this.opponents = opponents;
+            this.engines = new EnginePool();
+            this.workers = workers;
+            this.workerEngines = new EnginePool();
+            this.workerWalks = ThreadLocal.withInitial(() -> new PrefixWalk(evaluation, opponents, geneLength));
+
+            this.islands = new Island[islands];
+            for (int i = 0; i < islands; i++) {
+                Random islandRandom = islands == SINGLE_ISLAND ? random : new Random(random.nextLong());
+                this.islands[i] =
+                        new Island(islandRandom, selections.get(), new PrefixWalk(evaluation, opponents, geneLength));
+            }
         }
 
         @Override
         public Action[] play() {
-            // long currentTimeMillis = System.currentTimeMillis();
-            Chromosome chromosome = find(geneLength, popSize, generations);
-            // System.err.println(System.currentTimeMillis() - currentTimeMillis);
+            long deadline = nextDeadline();
 
-            SimplifiedAction nextAction = chromosome.genes[0];
+            boolean pondered = stopPondering();
+
+            SimplifiedAction nextAction = find(deadline, pondered);
+            lastAction = nextAction;
 
             int height = repo.getHeight();
             int width = repo.getWidth();
@@ -242,499 +537,3600 @@ public final class Player {
             return new Action[] { Action.forSimplifiedAction(nextAction, x, y, height, width) };
         }
 
-        private Chromosome find(int movements, int popSize, int generations) {
-
-            // Create the pool
-            List<Chromosome> pool = new ArrayList<>(popSize);
-            List<Chromosome> newPool = new ArrayList<>(popSize);
-
-            // Generate unique chromosomes in the pool
-            for (int i = 0; i < popSize; i++) {
+        /**
+         * Breeds the islands on a thread of its own, from the state the action played is expected to lead to, until
+         * the next call to {@link #play()}. The next turn goes on from the generations bred if the state it reads is
+         * the one expected, and seeds the islands again otherwise. Opponents reach the expected state as the search
+         * simulates them, so they are only expected to stay with {@link StayOpponents}.
+         */
+        @Override
+        public void ponder() {
+            if (lastAction == null || pondering != null) {
+                return;
+            }
 
-                SimplifiedAction[] genes = generateRandomMovements(movements);
-                Chromosome chromosome =
-                        new Chromosome(crossoverRate, mutationRate, genes, evaluationFunction, random);
+            if (expectedState == null || !expectedState.canCopyFrom(lastState)) {
+                expectedState = new HypersonicGameEngine(lastState);
+            } else {
+                expectedState.copyFrom(lastState);
+            }
+            PrefixWalk.perform(expectedState, lastAction, opponents, expectedOthers);
+            expectedHash = expectedState.getStateHash();
+
+            if (ponderer == null) {
+                ponderer = Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "ponderer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
 
-                chromosome.evaluate(
-                        new HypersonicGameEngine(
-                                repo.getGrid(),
-                                repo.getBombs(),
-                                repo.getItems(),
-                                repo.getPlayer()));
+            ponderingStopped = false;
+            pondering = ponderer.submit(() -> {
+                // islands are only stopped between generations, or between epochs with more than one island
+                while (!ponderingStopped) {
+                    evolve(expectedState, islands.length == SINGLE_ISLAND ? 1 : migrationInterval, NO_DEADLINE);
+                    if (islands.length > SINGLE_ISLAND) {
+                        migrate();
+                    }
+                }
+            });
+        }
 
-                pool.add(chromosome);
+        /**
+         * Waits for the pondering thread to stop breeding
+         *
+         * @return whether the islands were pondered since the last turn
+         */
+        private boolean stopPondering() {
+            if (pondering == null) {
+                return false;
             }
 
-            // Loop until solution is found
-            for (int generation = 0; generation < generations; generation++) {
-                // Clear the new pool
-                newPool.clear();
+            ponderingStopped = true;
+            try {
+                pondering.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while pondering", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Pondering failed", e.getCause());
+            } finally {
+                pondering = null;
+            }
 
-                // Loop until the pool has been processed
-                for (int x = pool.size() - 1; x >= 0; x -= 2) {
-                    // Select two members
-                    Chromosome n1 = selectMember(pool);
-                    Chromosome n2 = selectMember(pool);
+            return true;
+        }
 
-                    // Cross over and mutate
-                    n1.crossOver(n2);
-                    n1.mutate();
-                    n2.mutate();
+        /**
+         * @param pondered whether the islands were bred since the last turn, from the state it was expected to lead
+         * to
+         * @return the first gene of the best chromosome scored
+         */
+        private SimplifiedAction find(long deadline, boolean pondered) {
 
-                    // evaluate new nodes
-                    n1.evaluate(
-                            new HypersonicGameEngine(
-                                    repo.getGrid(),
-                                    repo.getBombs(),
-                                    repo.getItems(),
-                                    repo.getPlayer()));
-                    n2.evaluate(
-                            new HypersonicGameEngine(
-                                    repo.getGrid(),
-                                    repo.getBombs(),
-                                    repo.getItems(),
-                                    repo.getPlayer()));
+            // Evaluations on this thread share a single engine, each one rewinds it back to the current state
+            HypersonicGameEngine gameEngine = engines.get(repo, simulatedBombermen());
+            lastState = gameEngine;
 
-                    // Add to the new pool
-                    newPool.add(n1);
-                    newPool.add(n2);
+            // generations pondered from another state than the one read are dropped
+            if (pondered && gameEngine.getStateHash() != expectedHash) {
+                for (Island island : islands) {
+                    island.seeded = false;
                 }
+            }
 
-                // Add the newPool back to the old pool
-                pool.addAll(newPool);
+            if (islands.length == SINGLE_ISLAND) {
+                Island island = islands[0];
+                island.evolve(gameEngine, generations, deadline);
+                island.carryOver();
+                return POSSIBLE_ACTIONS[island.best[0]];
             }
 
-            return newPool.stream()
-                    .max(Comparator.comparingDouble(Chromosome::getScore))
-                    .orElseThrow(() -> new IllegalStateException("Pool should contain at least one cromossome"));
-        }
+            // Loop until solution is found, or until time is up if there is a deadline
+            for (int generation = 0;
+                 deadline == NO_DEADLINE ? generation < generations : !isPast(deadline);
+                 generation += migrationInterval) {
 
-        private Chromosome selectMember(List<Chromosome> l) {
+                int epoch = deadline == NO_DEADLINE ?
+                        Math.min(migrationInterval, generations - generation) :
+                        migrationInterval;
 
-            // Get the total fitness
-            double tot = 0.0;
-            for (int x = l.size() - 1; x >= 0; x--) {
-                double score = (l.get(x)).score;
-                tot += score;
+                evolve(gameEngine, epoch, deadline);
+                migrate();
             }
-            double slice = tot * random.nextDouble();
 
-            // Loop to find the node
-            double ttot = 0.0;
-            for (int x = l.size() - 1; x >= 0; x--) {
-                Chromosome node = l.get(x);
-                ttot += node.score;
-                if (ttot >= slice) {
-                    l.remove(x);
-                    return node;
+            Island best = islands[0];
+            for (Island island : islands) {
+                island.carryOver();
+                if (island.bestScore > best.bestScore) {
+                    best = island;
                 }
             }
 
-            return l.remove(l.size() - 1);
+            return POSSIBLE_ACTIONS[best.best[0]];
         }
 
-        private SimplifiedAction[] generateRandomMovements(int movements) {
-
-            SimplifiedAction[] actions = new SimplifiedAction[movements];
-
-            for (int i = 0; i < movements; i++) {
-                actions[i] = POSSIBLE_ACTIONS[random.nextInt(POSSIBLE_ACTIONS.length)];
+        /**
+         * @return the player, then its opponents
+         */
+        private Bomberman[] simulatedBombermen() {
+            // stats are read from the first bomberman of the engine
+            Bomberman[] bombermen = repo.getBombermen();
+            for (int i = 0; i < bombermen.length; i++) {
+                if (bombermen[i] == repo.getPlayer()) {
+                    bombermen[i] = bombermen[0];
+                    bombermen[0] = repo.getPlayer();
+                }
             }
-
-            return actions;
+            return bombermen;
         }
 
-        @Override
-        public String toString() {
-            return "GeneticAI{" +
-                    "geneLength=" + geneLength +
-                    ", popSize=" + popSize +
-                    ", generations=" + generations +
-                    ", crossoverRate=" + crossoverRate +
-                    ", mutationRate=" + mutationRate +
-                    "} ";
+        /**
+         * Evolves every island for the given generations, on the workers when there are more than one island
+         */
+        private void evolve(HypersonicGameEngine gameEngine, int generations, long deadline) {
+            if (workers == null || islands.length == SINGLE_ISLAND) {
+                for (Island island : islands) {
+                    island.evolve(gameEngine, generations, deadline);
+                }
+            } else {
+                workers.invoke(new Epoch(0, islands.length, gameEngine, generations, deadline));
+            }
         }
-    }
 
-    private static class Chromosome {
-
-        private static final SimplifiedAction[] POSSIBLE_ACTIONS = SimplifiedAction.values();
-
-        private final double crossoverRate;
-        private final double mutationRate;
-        private final BiFunction<HypersonicGameEngine, SimplifiedAction[], Double> evaluationFunction;
-        private final Random random;
+        /**
+         * Replaces the worst chromosomes of every island with the best ones of the island before it, around a ring
+         */
+        private void migrate() {
+            for (Island island : islands) {
+                island.emigrate();
+            }
 
-        private SimplifiedAction[] genes;
-        private double score;
+            for (int i = 0; i < islands.length; i++) {
+                islands[(i + 1) % islands.length].immigrate(islands[i].emigrants);
+            }
+        }
 
-        public Chromosome(
-                double crossoverRate,
-                double mutationRate,
-                SimplifiedAction[] genes,
-                BiFunction<HypersonicGameEngine, SimplifiedAction[], Double> evaluationFunction,
-                Random random) {
+        private static void evaluate(
+                Population population,
+                int[] rows,
+                int from,
+                int to,
+                HypersonicGameEngine gameEngine,
+                PrefixWalk walk,
+                double cutoff,
+                long deadline) {
+
+            walk.start(gameEngine);
+
+            for (int i = from; i < to; i++) {
+                int row = rows[i];
+                if (!population.evaluated[row]) {
+                    population.scores[row] = walk.evaluate(population.genes, row * population.geneLength, cutoff);
+                    population.evaluated[row] = true;
+
+                    if (isPast(deadline)) {
+                        break;
+                    }
+                }
+            }
 
-            this.crossoverRate = crossoverRate;
-            this.mutationRate = mutationRate;
-            this.genes = genes;
-            this.evaluationFunction = evaluationFunction;
-            this.random = random;
-            this.score = 0.0;
+            walk.finish();
         }
 
-        public void evaluate(HypersonicGameEngine gameEngine) {
-            this.score = evaluationFunction.apply(gameEngine, genes);
-        }
+        /**
+         * A population evolved apart from the others, with its own random sequence and prefix walk. Islands may be
+         * evolved on any thread, but on a single one at a time.
+         */
+        private final class Island {
+
+            private final Random random;
+            private final Selection selection;
+            private final PrefixWalk walk;
+
+            // the pool and the offspring bred from it, swapped after every generation
+            private Population pool;
+            private Population offspring;
+            // the best chromosomes of the last turn, best first
+            private final Population carriedOver;
+            // the best chromosomes sent to the next island at the last migration
+            private final Population emigrants;
+            private final int[] order;
+            private final byte[] best;
+            private double bestScore;
+            private boolean seeded;
+
+            Island(Random random, Selection selection, PrefixWalk walk) {
+                this.random = random;
+                this.selection = selection;
+                this.walk = walk;
+                // offspring are bred in pairs, with room for the second child of the last pair
+                this.pool = new Population(popSize + 1, geneLength);
+                this.offspring = new Population(popSize + 1, geneLength);
+                this.carriedOver = new Population(popSize, geneLength);
+                this.emigrants = new Population(migrants, geneLength);
+                this.order = new int[popSize + 1];
+                this.best = new byte[geneLength];
+            }
 
-        public void crossOver(Chromosome another) {
-            if (random.nextDouble() < crossoverRate) {
-                int randomGene = random.nextInt(genes.length);
+            /**
+             * Breeds generations from the current state of the engine, seeding the pool first if it was not this
+             * turn
+             */
+            void evolve(HypersonicGameEngine gameEngine, int generations, long deadline) {
+                if (!seeded) {
+                    seed(gameEngine, deadline);
+                    seeded = true;
+                }
 
-                SimplifiedAction[] child1 = new SimplifiedAction[genes.length];
-                SimplifiedAction[] child2 = new SimplifiedAction[genes.length];
+                for (int generation = 0;
+                     deadline == NO_DEADLINE ? generation < generations : !isPast(deadline);
+                     generation++) {
 
-                for (int j = 0; j < randomGene; j++) {
-                    child1[j] = genes[j];
-                    child2[j] = another.genes[j];
+                    breed(gameEngine, deadline);
                 }
+            }
 
-                for (int j = randomGene; j < genes.length; j++) {
-                    child1[j] = another.genes[j];
-                    child2[j] = genes[j];
+            private void seed(HypersonicGameEngine gameEngine, long deadline) {
+                // Seed the pool with last turn's best chromosomes, one turn further, then fill it with random ones
+                for (int row = 0; row < popSize; row++) {
+                    if (row < carriedOver.size) {
+                        shiftMovements(carriedOver, row, pool, row);
+                    } else {
+                        generateRandomMovements(pool, row);
+                    }
+                    pool.evaluated[row] = false;
                 }
+                pool.size = popSize;
 
-                this.genes = child1;
-                another.genes = child2;
-            }
-        }
+                evaluate(pool, gameEngine, NO_CUTOFF, deadline);
+                pool.compact();
 
-        public void mutate() {
-            for (int i = 0; i < genes.length; i++) {
-                if (random.nextDouble() <= mutationRate) {
-                    genes[i] = POSSIBLE_ACTIONS[random.nextInt(POSSIBLE_ACTIONS.length)];
+                bestScore = 0.0;
+                for (int row = 0; row < pool.size; row++) {
+                    if (row == 0 || pool.scores[row] > bestScore) {
+                        System.arraycopy(pool.genes, row * geneLength, best, 0, geneLength);
+                        bestScore = pool.scores[row];
+                    }
                 }
             }
-        }
 
-        public double getScore() {
-            return score;
-        }
-
-        @Override
-        public String toString() {
-            return "Chromosome{" +
-                    "genes=" + Arrays.toString(genes) +
-                    ", score=" + score +
-                    '}';
-        }
-    }
+            private void breed(HypersonicGameEngine gameEngine, long deadline) {
+                pool.sortByScore(order);
+                selection.rank(pool.scores, order, pool.size);
 
-    public static final class HypersonicGameEngine {
+                // offspring that cannot reach the worst of their parents are not scored any further
+                double cutoff = pool.scores[order[pool.size - 1]];
 
-        private final int height;
-        private final int width;
+                // the elites are kept as they are, ahead of the offspring, and are not scored again
+                int bred = Math.min(elites, pool.size);
+                for (int row = 0; row < bred; row++) {
+                    offspring.copyRow(pool, order[row], row);
+                }
 
-        private final CellType[][] grid;
-        private final List<Bomb> bombs;
-        private final List<Item> items;
-        private final Bomberman[] bombermen;
-        private final boolean[] deadBombermen;
+                // Loop until the offspring are as many as the pool
+                for (; bred < pool.size; bred += 2) {
+                    // Select two members
+                    int n1 = selection.select(random);
+                    int n2 = selection.select(random);
 
-        private final Item[][] itemsGrid;
-        private final Bomb[][] bombsGrid;
+                    // Cross over and mutate
+                    breed(n1, n2, bred, bred + 1);
+                }
 
-        private int[] destroyedBoxesCount;
+                offspring.size = pool.size;
 
-        /**
-         * Builder with initial state
-         */
-        public HypersonicGameEngine(
-                CellType[][] grid,
-                List<Bomb> bombs,
-                List<Item> items,
-                Bomberman... bombermen) {
+                // selection only reads the scores of the pool, so offspring are evaluated once all are bred
+                evaluate(offspring, gameEngine, cutoff, deadline);
 
-            this.height = grid.length;
-            this.width = grid[0].length;
-            this.itemsGrid = new Item[height][width];
-            this.bombsGrid = new Bomb[height][width];
+                // offspring left when time ran out are dropped
+                offspring.compact();
+                for (int row = 0; row < offspring.size; row++) {
+                    if (offspring.scores[row] > bestScore) {
+                        System.arraycopy(offspring.genes, row * geneLength, best, 0, geneLength);
+                        bestScore = offspring.scores[row];
+                    }
+                }
 
-            this.grid = new CellType[height][width];
-            for (int i = 0; i < height; i++) {
-                System.arraycopy(grid[i], 0, this.grid[i], 0, grid[i].length);
+                Population bredPool = offspring;
+                offspring = pool;
+                pool = bredPool;
             }
 
-            this.bombs = new ArrayList<>(bombs.size());
+            /**
+             * Keeps the best chromosomes for the next turn
+             */
+            void carryOver() {
+                if (pool.size == 0) {
+                    throw new IllegalStateException("Pool should contain at least one cromossome");
+                }
 
-            for (Bomb bomb : bombs) {
-                Bomb copy = new Bomb(bomb);
-                this.bombs.add(copy);
+                // the sort is stable, so the best comes first among chromosomes with the same score
+                pool.sortByScore(order);
+
+                carriedOver.size = Math.min(pool.size, (int) Math.round(popSize * carryOverRate));
+                for (int row = 0; row < carriedOver.size; row++) {
+                    carriedOver.copyRow(pool, order[row], row);
+                }
 
-                int x = bomb.getCell().getX();
-                int y = bomb.getCell().getY();
-                this.bombsGrid[y][x] = copy;
+                seeded = false;
             }
 
-            this.items = new ArrayList<>(items.size());
-            for (Item item : items) {
-                this.items.add(item);
+            void emigrate() {
+                pool.sortByScore(order);
 
-                int x = item.getCell().getX();
-                int y = item.getCell().getY();
-                this.itemsGrid[y][x] = item;
+                emigrants.size = Math.min(pool.size, migrants);
+                for (int row = 0; row < emigrants.size; row++) {
+                    emigrants.copyRow(pool, order[row], row);
+                }
             }
 
-            this.bombermen = bombermen;
-            for (int i = 0; i < bombermen.length; i++) {
-                this.bombermen[i] = new Bomberman(bombermen[i]);
-            }
+            /**
+             * Replaces the worst chromosomes with the migrants. They were scored from the same state, so they keep
+             * their scores.
+             */
+            void immigrate(Population migrants) {
+                pool.sortByScore(order);
 
-            this.deadBombermen = new boolean[4];
-            this.destroyedBoxesCount = new int[4];
-        }
+                for (int row = 0; row < migrants.size && row < pool.size; row++) {
+                    int worst = order[pool.size - 1 - row];
+                    pool.copyRow(migrants, row, worst);
 
-        public void perform(SimplifiedAction... actions) {
-            perform(false, actions);
-        }
+                    if (migrants.scores[row] > bestScore) {
+                        System.arraycopy(migrants.genes, row * geneLength, best, 0, geneLength);
+                        bestScore = migrants.scores[row];
+                    }
+                }
+            }
 
-        public void perform(boolean relaxed, SimplifiedAction... actions) {
-            if (actions.length != bombermen.length) {
-                throw new IllegalStateException("Expected " + bombermen.length + " actions, but found " + actions);
+            /**
+             * Scores the chromosomes, skipping those whose genes did not change. They are scored in the order of
+             * their genes, so that chromosomes sharing their first genes are scored one after another. Past the
+             * deadline, the ones left are not scored, but each worker scores at least one.
+             */
+            private void evaluate(
+                    Population population,
+                    HypersonicGameEngine gameEngine,
+                    double cutoff,
+                    long deadline) {
+
+                population.sortByGenes(order);
+
+                // islands already keep the workers busy, so the chromosomes of one are scored on a single thread
+                if (workers == null || islands.length > SINGLE_ISLAND) {
+                    GeneticAI.evaluate(population, order, 0, population.size, gameEngine, walk, cutoff, deadline);
+                } else {
+                    workers.invoke(
+                            new Evaluation(population, order, 0, population.size, gameEngine, cutoff, deadline));
+                }
             }
 
-            List<Cell> boxesToDestroy = new ArrayList<>();
-            List<Cell> itemsToDestroy = new ArrayList<>();
+            /**
+             * Writes in two rows of the offspring the crossover of two rows of the pool, then mutates them. An
+             * offspring keeps the score of its parent if neither changed its genes.
+             */
+            private void breed(int parent1, int parent2, int child1, int child2) {
+                boolean crossed = random.nextDouble() < crossoverRate;
+                int randomGene = crossed ? random.nextInt(geneLength) : geneLength;
+
+                offspring.crossRows(pool, parent1, parent2, randomGene, child1);
+                offspring.crossRows(pool, parent2, parent1, randomGene, child2);
+                offspring.evaluated[child1] &= !crossed;
+                offspring.evaluated[child2] &= !crossed;
+
+                mutate(offspring, child1);
+                mutate(offspring, child2);
+            }
 
-            Queue<Bomb> toEvaluate = new ArrayDeque<>(bombs);
+            private void mutate(Population population, int row) {
+                int offset = row * geneLength;
+                for (int i = 0; i < geneLength; i++) {
+                    if (random.nextDouble() <= mutationRate) {
+                        population.genes[offset + i] = (byte) random.nextInt(POSSIBLE_ACTIONS.length);
+                        population.evaluated[row] = false;
+                    }
+                }
+            }
 
-            for (Bomb bomb = toEvaluate.poll(); bomb != null; bomb = toEvaluate.poll()) {
+            private void generateRandomMovements(Population population, int row) {
+                int offset = row * geneLength;
+                for (int i = 0; i < geneLength; i++) {
+                    population.genes[offset + i] = (byte) random.nextInt(POSSIBLE_ACTIONS.length);
+                }
+            }
 
-                if (bomb.decrementRoundsToExplode() <= 0) {
-                    int x = bomb.getCell().getX();
-                    int y = bomb.getCell().getY();
-                    int range = bomb.getExplosionRange();
+            /**
+             * Drops the gene played last turn and appends a random one
+             */
+            private void shiftMovements(Population from, int fromRow, Population to, int toRow) {
+                System.arraycopy(from.genes, fromRow * geneLength + 1, to.genes, toRow * geneLength, geneLength - 1);
+                to.genes[(toRow + 1) * geneLength - 1] = (byte) random.nextInt(POSSIBLE_ACTIONS.length);
+            }
+        }
 
-                    int owner = bomb.getOwner();
-                    // if hits any bomberman, he dies
-                    for (Bomberman bomberman : bombermen) {
-                        if (owner == bomberman.getId()) {
-                            bomberman.incrementBombsToPlace();
-                        }
+        /**
+         * Evolves a range of islands for a few generations, each on a copy of the engine confined to the worker
+         * running it
+         */
+        private final class Epoch extends RecursiveAction {
+
+            private final int from;
+            private final int to;
+            private final HypersonicGameEngine gameEngine;
+            private final int generations;
+            private final long deadline;
+
+            Epoch(int from, int to, HypersonicGameEngine gameEngine, int generations, long deadline) {
+                this.from = from;
+                this.to = to;
+                this.gameEngine = gameEngine;
+                this.generations = generations;
+                this.deadline = deadline;
+            }
 
-                        if (bomberman.getCell().getX() == x) {
-                            if (Math.abs(bomberman.getCell().getY() - y) <= range) {
-                                deadBombermen[bomberman.getId()] = true;
-                            }
-                        } else if (bomberman.getCell().getY() == y) {
-                            if (Math.abs(bomberman.getCell().getX() - x) <= range) {
-                                deadBombermen[bomberman.getId()] = true;
-                            }
-                        }
-                    }
+            @Override
+            protected void compute() {
+                if (to - from > 1) {
+                    int middle = (from + to) >>> 1;
+                    invokeAll(
+                            new Epoch(from, middle, gameEngine, generations, deadline),
+                            new Epoch(middle, to, gameEngine, generations, deadline));
+                    return;
+                }
 
-                    // evaluating east
-                    for (int j = x - 1; j > x - range; j--) {
-                        if (j < 0 || grid[y][j] == CellType.BLOCK) {
-                            break;
-                        }
+                HypersonicGameEngine copy = workerEngines.copyOf(gameEngine);
+                islands[from].evolve(copy, generations, deadline);
+            }
+        }
 
-                        if (grid[y][j] == CellType.BOX_WITH_NO_ITEM
-                                || grid[y][j] == CellType.BOX_WITH_EXTRA_BOMB
-                                || grid[y][j] == CellType.BOX_WITH_EXTRA_RANGE) {
-                            boxesToDestroy.add(new Cell(j, y));
-                            destroyedBoxesCount[owner]++;
-                            break;
-                        }
+        /**
+         * Splits the chromosomes in batches, each scored on a copy of the engine and a prefix walk confined to the
+         * worker running it. Scores only depend on the genes and the state they start from, so they come out
+         * the same as if they were scored in order on a single thread.
+         */
+        private final class Evaluation extends RecursiveAction {
+
+            private final Population population;
+            private final int[] rows;
+            private final int from;
+            private final int to;
+            private final HypersonicGameEngine gameEngine;
+            private final double cutoff;
+            private final long deadline;
+
+            Evaluation(
+                    Population population,
+                    int[] rows,
+                    int from,
+                    int to,
+                    HypersonicGameEngine gameEngine,
+                    double cutoff,
+                    long deadline) {
+
+                this.population = population;
+                this.rows = rows;
+                this.from = from;
+                this.to = to;
+                this.gameEngine = gameEngine;
+                this.cutoff = cutoff;
+                this.deadline = deadline;
+            }
 
-                        if (itemsGrid[y][j] != null) {
-                            itemsToDestroy.add(new Cell(j, y));
-                            break;
-                        }
+            @Override
+            protected void compute() {
+                if (to - from > EVALUATION_BATCH) {
+                    int middle = (from + to) >>> 1;
+                    invokeAll(
+                            new Evaluation(population, rows, from, middle, gameEngine, cutoff, deadline),
+                            new Evaluation(population, rows, middle, to, gameEngine, cutoff, deadline));
+                    return;
+                }
 
-                        // bombs are detonated in chain
-                        if (bombsGrid[y][j] != null) {
-                            bombsGrid[y][j].setRoundsToExplode(1);
-                            toEvaluate.add(bombsGrid[y][j]);
+                HypersonicGameEngine copy = workerEngines.copyOf(gameEngine);
+                evaluate(population, rows, from, to, copy, workerWalks.get(), cutoff, deadline);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "GeneticAI{" +
+                    "geneLength=" + geneLength +
+                    ", popSize=" + popSize +
+                    ", generations=" + generations +
+                    ", crossoverRate=" + crossoverRate +
+                    ", mutationRate=" + mutationRate +
+                    ", carryOverRate=" + carryOverRate +
+                    ", selection=" + islands[0].selection +
+                    ", elites=" + elites +
+                    ", islands=" + islands.length +
+                    ", migrationInterval=" + migrationInterval +
+                    ", migrants=" + migrants +
+                    ", opponents=" + opponents +
+                    "} ";
+        }
+    }
+
+    /**
+     * Monte Carlo tree search over the actions of the player, the opponents left out as in {@link GeneticAI}. Every
+     * iteration walks down the tree by UCT, adds the children of the node it stops at, plays random actions from
+     * there to the end of the plan, and credits the score of the whole plan to the nodes it walked through. Plans are
+     * scored by a {@link RoundEvaluation}, as chromosomes are, and the most visited action is played.<br>
+     * The tree is kept in a pool of nodes allocated once. When the state read next turn is the one the played action
+     * was expected to lead to, the subtree of that action is kept as the new tree, and the rest of the pool freed.
+     */
+    public static class MonteCarloAI extends AI {
+
+        private static final SimplifiedAction[] POSSIBLE_ACTIONS = SimplifiedAction.values();
+
+        // about forty megabytes for the two trees, which the first turn of the contest about fills up
+        private static final int NODES = 1 << 20;
+
+        protected static final double DEFAULT_EXPLORATION = Math.sqrt(2);
+
+        private final InputRepository repo;
+        private final EnginePool engines;
+        private final RoundEvaluation evaluation;
+        private final boolean withAccessiblePlaces;
+        private final RoundStats before;
+        private final RoundStats after;
+        private final int rounds;
+        private final int iterations;
+        private final double exploration;
+        private final Random random;
+        // the nodes walked through by an iteration, from the root
+        private final int[] path;
+
+        // the tree of this turn, and the one the subtree kept for the next turn is copied to
+        private SearchTree tree;
+        private SearchTree spare;
+        // the lowest and highest scores of the plans played out this turn, UCT scales the scores of the nodes by them
+        private double lowest;
+        private double highest;
+        // the node of the action played, and the state hash it was expected to lead to
+        private int playedNode;
+        private long expectedHash;
+        // the plans played out last turn
+        private int playedOut;
+
+        public MonteCarloAI(InputRepository repo) {
+            this(repo, NO_TIME_BUDGET, NO_TIME_BUDGET);
+        }
+
+        public MonteCarloAI(InputRepository repo, long firstTurnBudget, long turnBudget) {
+            this(
+                    16,
+                    1000,
+                    DEFAULT_EXPLORATION,
+                    repo,
+                    BlockAwareAI.evaluation(500, 45, 30, 10, 60),
+                    new Random(),
+                    firstTurnBudget,
+                    turnBudget);
+        }
+
+        /**
+         * With a time budget, iterations go on until the budget of the turn runs out rather than a fixed number of
+         * times.
+         *
+         * @param rounds the number of actions of a plan
+         * @param iterations the number of plans played out every turn without a time budget
+         * @param exploration the weight of the exploration term of UCT, against scores scaled between 0 and 1
+         * @param random drives the play outs
+         * @param firstTurnBudget the nanoseconds the first turn may take, or {@link #NO_TIME_BUDGET}
+         * @param turnBudget the nanoseconds every other turn may take, or {@link #NO_TIME_BUDGET}
+         */
+        public MonteCarloAI(
+                int rounds,
+                int iterations,
+                double exploration,
+                InputRepository repo,
+                RoundEvaluation evaluation,
+                Random random,
+                long firstTurnBudget,
+                long turnBudget) {
+
+            super(repo, firstTurnBudget, turnBudget);
+
+            if (rounds < 1) {
+                throw new IllegalArgumentException("Plans should be at least one round long");
+            }
+
+            this.rounds = rounds;
+            this.iterations = iterations;
+            this.exploration = exploration;
+            this.repo = repo;
+            this.evaluation = evaluation;
+            this.withAccessiblePlaces = evaluation.readsAccessiblePlaces();
+            this.random = random;
+            this.engines = new EnginePool();
+            this.before = new RoundStats();
+            this.after = new RoundStats();
+            this.path = new int[rounds + 1];
+            this.tree = new SearchTree(NODES);
+            this.spare = new SearchTree(NODES);
+            this.playedNode = SearchTree.ROOT;
+        }
+
+        @Override
+        public Action[] play() {
+            long deadline = nextDeadline();
+
+            SimplifiedAction nextAction = find(deadline);
+
+            int height = repo.getHeight();
+            int width = repo.getWidth();
+
+            int x = repo.getPlayer().getCell().getX();
+            int y = repo.getPlayer().getCell().getY();
+
+            return new Action[] { Action.forSimplifiedAction(nextAction, x, y, height, width) };
+        }
+
+        /**
+         * @return the most visited action from the root
+         */
+        private SimplifiedAction find(long deadline) {
+
+            // Iterations share a single engine, each one rewinds it back to the current state
+            HypersonicGameEngine gameEngine = engines.get(repo, repo.getPlayer());
+            int mark = gameEngine.mark();
+
+            keepPlayedSubtree(gameEngine.getStateHash());
+
+            lowest = Double.POSITIVE_INFINITY;
+            highest = Double.NEGATIVE_INFINITY;
+
+            // The first iteration always runs, it expands the root
+            int iteration = 0;
+            for (;
+                 iteration == 0 || (deadline == NO_DEADLINE ? iteration < iterations : !isPast(deadline));
+                 iteration++) {
+
+                iterate(gameEngine);
+                gameEngine.rewind(mark);
+            }
+            playedOut = iteration;
+
+            int first = tree.children[SearchTree.ROOT];
+            int best = first;
+            for (int child = first + 1; child < first + POSSIBLE_ACTIONS.length; child++) {
+                if (tree.visits[child] > tree.visits[best]
+                        || tree.visits[child] == tree.visits[best] && tree.totals[child] > tree.totals[best]) {
+                    best = child;
+                }
+            }
+
+            SimplifiedAction action = POSSIBLE_ACTIONS[best - first];
+
+            gameEngine.perform(true, action);
+            playedNode = best;
+            expectedHash = gameEngine.getStateHash();
+            gameEngine.rewind(mark);
+
+            return action;
+        }
+
+        /**
+         * @return the number of plans played out last turn
+         */
+        int getPlayedOut() {
+            return playedOut;
+        }
+
+        /**
+         * Keeps the subtree of the action played last turn if it led to the given state, or starts a new tree
+         */
+        private void keepPlayedSubtree(long stateHash) {
+            if (playedNode == SearchTree.ROOT || stateHash != expectedHash) {
+                tree.clear();
+                return;
+            }
+
+            spare.copySubtree(tree, playedNode);
+
+            SearchTree swap = tree;
+            tree = spare;
+            spare = swap;
+            playedNode = SearchTree.ROOT;
+        }
+
+        /**
+         * Walks down the tree to a node it expands, plays out the plan from one of its children and credits its score
+         * to every node walked through. The walk stops early at the death of the player, which ends the plan, or when
+         * the pool is full, the plan being played out from the node reached then.
+         */
+        private void iterate(HypersonicGameEngine gameEngine) {
+            int node = SearchTree.ROOT;
+            int length = 1;
+            path[0] = node;
+
+            double score = 0.0;
+            int round = 0;
+            boolean dead = false;
+            boolean expanded = false;
+
+            while (round < rounds && !dead && !expanded) {
+                if (tree.children[node] == SearchTree.NO_CHILDREN) {
+                    if (!tree.expand(node)) {
+                        break;
+                    }
+                    expanded = true;
+                }
+
+                int first = tree.children[node];
+                int child = select(node);
+
+                before.capture(gameEngine, withAccessiblePlaces);
+
+                SimplifiedAction carriedOut = gameEngine.perform(true, POSSIBLE_ACTIONS[child - first]);
+                if (carriedOut.ordinal() != child - first) {
+                    tree.alias(child);
+                    child = first + carriedOut.ordinal();
+                }
+
+                after.capture(gameEngine, withAccessiblePlaces);
+
+                score += evaluation.evaluate(before, after, round, rounds);
+                dead = after.isDead();
+                round++;
+
+                path[length++] = child;
+                node = child;
+            }
+
+            // Play out the rest of the plan at random
+            for (; round < rounds && !dead; round++) {
+                before.capture(gameEngine, withAccessiblePlaces);
+                gameEngine.perform(true, POSSIBLE_ACTIONS[random.nextInt(POSSIBLE_ACTIONS.length)]);
+                after.capture(gameEngine, withAccessiblePlaces);
+
+                score += evaluation.evaluate(before, after, round, rounds);
+                dead = after.isDead();
+            }
+
+            for (int i = 0; i < length; i++) {
+                tree.visit(path[i], score);
+            }
+
+            lowest = Math.min(lowest, score);
+            highest = Math.max(highest, score);
+        }
+
+        /**
+         * UCT, with the mean scores of the children scaled between 0 and 1 by the scores played out this turn. A child
+         * never visited is picked first, in the order of the actions.
+         */
+        private int select(int node) {
+            int first = tree.children[node];
+            double logVisits = Math.log(Math.max(1, tree.visits[node]));
+            double range = highest - lowest;
+
+            int best = SearchTree.NO_CHILDREN;
+            double bestValue = Double.NEGATIVE_INFINITY;
+
+            for (int child = first; child < first + POSSIBLE_ACTIONS.length; child++) {
+                int visits = tree.visits[child];
+                if (visits == SearchTree.ALIASED) {
+                    continue;
+                }
+                if (visits == 0) {
+                    return child;
+                }
+
+                double mean = tree.totals[child] / visits;
+                double exploitation = range > 0.0 ? (mean - lowest) / range : 0.0;
+                double value = exploitation + exploration * Math.sqrt(logVisits / visits);
+
+                if (value > bestValue) {
+                    best = child;
+                    bestValue = value;
+                }
+            }
+
+            return best;
+        }
+
+        @Override
+        public String toString() {
+            return "MonteCarloAI{" +
+                    "rounds=" + rounds +
+                    ", iterations=" + iterations +
+                    ", exploration=" + exploration +
+                    "} ";
+        }
+    }
+
+    /**
+     * Beam search over the actions of the player, the opponents left out as in {@link GeneticAI}. Every round, all
+     * the actions are tried from each state of the beam, children reaching the same state are merged into the one
+     * scoring best, and the best children make the beam of the next round. Actions the player cannot carry out, such
+     * as moves into walls, reach the same state as the action carried out, so the beam only ever holds distinct
+     * states. Plans are scored by a {@link RoundEvaluation}, as chromosomes are, and end with the death of the
+     * player.<br>
+     * Each state of the beam is kept in an engine of its own, engines being allocated the first turn only.
+     */
+    public static class BeamSearchAI extends AI {
+
+        private static final SimplifiedAction[] POSSIBLE_ACTIONS = SimplifiedAction.values();
+
+        private static final int NO_PLAN = -1;
+
+        private final InputRepository repo;
+        private final EnginePool engines;
+        private final RoundEvaluation evaluation;
+        private final boolean withAccessiblePlaces;
+        private final RoundStats before;
+        private final RoundStats after;
+        private final int width;
+        private final int depth;
+
+        // the states of the beam, with the first action and the score of their plans
+        private HypersonicGameEngine[] beam;
+        private byte[] firstActions;
+        private double[] scores;
+        private int beamSize;
+        // where the states of the next round are written to, swapped with the beam once they are
+        private HypersonicGameEngine[] nextBeam;
+        private byte[] nextFirstActions;
+        private double[] nextScores;
+
+        // the children of the beam: the state they come from, their action, state hash and score
+        private final int[] parents;
+        private final byte[] actions;
+        private final long[] hashes;
+        private final double[] childScores;
+        private int children;
+        // children by state hash, with open addressing, each slot holding a child plus one or 0 when empty
+        private final int[] merged;
+        // the best children of a round, the worst one first
+        private final int[] heap;
+        private int heapSize;
+
+        // the best plan the player died at the end of
+        private int deadFirstAction;
+        private double deadScore;
+        // the rounds searched to their end last turn
+        private int searchedRounds;
+
+        public BeamSearchAI(InputRepository repo) {
+            this(repo, NO_TIME_BUDGET, NO_TIME_BUDGET);
+        }
+
+        public BeamSearchAI(InputRepository repo, long firstTurnBudget, long turnBudget) {
+            this(400, 16, repo, BlockAwareAI.evaluation(500, 45, 30, 10, 60), firstTurnBudget, turnBudget);
+        }
+
+        /**
+         * With a time budget, the search stops at the end of the budget of the turn if it has not reached the last
+         * round yet, and the best plan of the last round searched is played. The first round is always searched.
+         *
+         * @param width the number of states kept every round
+         * @param depth the number of actions of a plan
+         * @param firstTurnBudget the nanoseconds the first turn may take, or {@link #NO_TIME_BUDGET}
+         * @param turnBudget the nanoseconds every other turn may take, or {@link #NO_TIME_BUDGET}
+         */
+        public BeamSearchAI(
+                int width,
+                int depth,
+                InputRepository repo,
+                RoundEvaluation evaluation,
+                long firstTurnBudget,
+                long turnBudget) {
+
+            super(repo, firstTurnBudget, turnBudget);
+
+            if (width < 1) {
+                throw new IllegalArgumentException("The beam should keep at least one state");
+            }
+
+            if (depth < 1) {
+                throw new IllegalArgumentException("Plans should be at least one round long");
+            }
+
+            this.width = width;
+            this.depth = depth;
+            this.repo = repo;
+            this.evaluation = evaluation;
+            this.withAccessiblePlaces = evaluation.readsAccessiblePlaces();
+            this.engines = new EnginePool();
+            this.before = new RoundStats();
+            this.after = new RoundStats();
+
+            this.beam = new HypersonicGameEngine[width];
+            this.firstActions = new byte[width];
+            this.scores = new double[width];
+            this.nextBeam = new HypersonicGameEngine[width];
+            this.nextFirstActions = new byte[width];
+            this.nextScores = new double[width];
+
+            int capacity = width * POSSIBLE_ACTIONS.length;
+            this.parents = new int[capacity];
+            this.actions = new byte[capacity];
+            this.hashes = new long[capacity];
+            this.childScores = new double[capacity];
+            this.merged = new int[Integer.highestOneBit(capacity) << 2];
+            this.heap = new int[width];
+        }
+
+        @Override
+        public Action[] play() {
+            long deadline = nextDeadline();
+
+            SimplifiedAction nextAction = find(deadline);
+
+            int height = repo.getHeight();
+            int width = repo.getWidth();
+
+            int x = repo.getPlayer().getCell().getX();
+            int y = repo.getPlayer().getCell().getY();
+
+            return new Action[] { Action.forSimplifiedAction(nextAction, x, y, height, width) };
+        }
+
+        /**
+         * @return the first action of the best plan found
+         */
+        private SimplifiedAction find(long deadline) {
+            HypersonicGameEngine gameEngine = engines.get(repo, repo.getPlayer());
+
+            beam[0] = copyOf(beam[0], gameEngine);
+            scores[0] = 0.0;
+            beamSize = 1;
+
+            deadFirstAction = NO_PLAN;
+            deadScore = Double.NEGATIVE_INFINITY;
+
+            int round = 0;
+            for (; round < depth && beamSize > 0; round++) {
+                if (!expand(round, deadline)) {
+                    break;
+                }
+                keepBestChildren();
+                advance(round);
+            }
+            searchedRounds = round;
+
+            // the player dies whatever it does
+            if (beamSize == 0) {
+                return deadFirstAction == NO_PLAN ? SimplifiedAction.STAY : POSSIBLE_ACTIONS[deadFirstAction];
+            }
+
+            // plans the player dies in may have scored more rounds than those of a round the deadline cut
+            int best = 0;
+            for (int i = 1; i < beamSize; i++) {
+                if (scores[i] > scores[best]) {
+                    best = i;
+                }
+            }
+
+            return POSSIBLE_ACTIONS[firstActions[best]];
+        }
+
+        /**
+         * @return the number of rounds searched to their end last turn
+         */
+        int getSearchedRounds() {
+            return searchedRounds;
+        }
+
+        /**
+         * Tries every action from every state of the beam, merging the children that reach the same state. Children
+         * the player died in end their plan there, and are not kept.
+         *
+         * @return whether every state was expanded before the deadline, the first round always being
+         */
+        private boolean expand(int round, long deadline) {
+            children = 0;
+            Arrays.fill(merged, 0);
+
+            for (int parent = 0; parent < beamSize; parent++) {
+                if (round > 0 && isPast(deadline)) {
+                    return false;
+                }
+
+                HypersonicGameEngine state = beam[parent];
+                int mark = state.mark();
+
+                before.capture(state, withAccessiblePlaces);
+
+                for (int action = 0; action < POSSIBLE_ACTIONS.length; action++) {
+                    state.perform(true, POSSIBLE_ACTIONS[action]);
+                    after.capture(state, withAccessiblePlaces);
+
+                    double score = scores[parent] + evaluation.evaluate(before, after, round, depth);
+                    int firstAction = round == 0 ? action : firstActions[parent];
+
+                    if (after.isDead()) {
+                        if (score > deadScore) {
+                            deadScore = score;
+                            deadFirstAction = firstAction;
                         }
+                    } else {
+                        merge(parent, action, state.getHash(), score);
+                    }
+
+                    state.rewind(mark);
+                }
+            }
+
+            return true;
+        }
+
+        private void merge(int parent, int action, long hash, double score) {
+            int mask = merged.length - 1;
+            int slot = (int) (hash ^ (hash >>> 32)) & mask;
+
+            while (merged[slot] != 0) {
+                int child = merged[slot] - 1;
+                if (hashes[child] == hash) {
+                    if (score > childScores[child]) {
+                        parents[child] = parent;
+                        actions[child] = (byte) action;
+                        childScores[child] = score;
+                    }
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            parents[children] = parent;
+            actions[children] = (byte) action;
+            hashes[children] = hash;
+            childScores[children] = score;
+            merged[slot] = ++children;
+        }
+
+        /**
+         * Keeps the best children in a heap of the beam width, children scoring the same being kept first come
+         */
+        private void keepBestChildren() {
+            heapSize = 0;
+
+            for (int child = 0; child < children; child++) {
+                if (heapSize < width) {
+                    heap[heapSize] = child;
+                    siftUp(heapSize++);
+                } else if (isWorse(heap[0], child)) {
+                    heap[0] = child;
+                    siftDown(0);
+                }
+            }
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!isWorse(heap[i], heap[parent])) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int worst = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < heapSize && isWorse(heap[left], heap[worst])) {
+                    worst = left;
+                }
+                if (right < heapSize && isWorse(heap[right], heap[worst])) {
+                    worst = right;
+                }
+                if (worst == i) {
+                    return;
+                }
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private boolean isWorse(int child, int another) {
+            return childScores[child] < childScores[another]
+                    || childScores[child] == childScores[another] && child > another;
+        }
+
+        private void swap(int i, int j) {
+            int swap = heap[i];
+            heap[i] = heap[j];
+            heap[j] = swap;
+        }
+
+        /**
+         * Plays the best children into the beam of the next round
+         */
+        private void advance(int round) {
+            for (int i = 0; i < heapSize; i++) {
+                int child = heap[i];
+                int parent = parents[child];
+
+                nextBeam[i] = copyOf(nextBeam[i], beam[parent]);
+                nextBeam[i].perform(true, POSSIBLE_ACTIONS[actions[child]]);
+                nextFirstActions[i] = round == 0 ? actions[child] : firstActions[parent];
+                nextScores[i] = childScores[child];
+            }
+
+            HypersonicGameEngine[] swapBeam = beam;
+            beam = nextBeam;
+            nextBeam = swapBeam;
+
+            byte[] swapFirstActions = firstActions;
+            firstActions = nextFirstActions;
+            nextFirstActions = swapFirstActions;
+
+            double[] swapScores = scores;
+            scores = nextScores;
+            nextScores = swapScores;
+
+            beamSize = heapSize;
+        }
+
+        /**
+         * @return the engine overwritten with the source, or a new one if it cannot be
+         */
+        private static HypersonicGameEngine copyOf(HypersonicGameEngine engine, HypersonicGameEngine source) {
+            if (engine != null && engine.canCopyFrom(source)) {
+                engine.copyFrom(source);
+                return engine;
+            }
+            return new HypersonicGameEngine(source);
+        }
+
+        @Override
+        public String toString() {
+            return "BeamSearchAI{" +
+                    "width=" + width +
+                    ", depth=" + depth +
+                    "} ";
+        }
+    }
+
+    /**
+     * Scores a plan one round at a time, so that plans starting with the same genes share the simulation and the
+     * scores of those genes. The round is played by the caller, the evaluation only scores it from the stats of the
+     * player before and after. A plan ends with the player: the rounds after its death score nothing.
+     */
+    @FunctionalInterface
+    public interface RoundEvaluation {
+
+        /**
+         * @param round the index of the gene played, from 0
+         * @param rounds the number of genes of the plan
+         */
+        double evaluate(RoundStats before, RoundStats after, int round, int rounds);
+
+        /**
+         * Stats only hold the places the player can reach when the evaluation reads them, as it costs a flood fill
+         * of the grid every round
+         */
+        default boolean readsAccessiblePlaces() {
+            return false;
+        }
+
+        /**
+         * The most the rounds from the given one on may add to the score of a plan, which lets plans that cannot
+         * catch up be cut short. It defaults to no bound, so that no plan is ever cut short.
+         *
+         * @param stats the stats of the player before the round
+         */
+        default double bound(RoundStats stats, int round, int rounds) {
+            return Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /**
+     * The stats of the player at some point of a plan, captured again and again on the same instance
+     */
+    public static final class RoundStats {
+
+        private boolean dead;
+        private int totalAvailableBombs;
+        private int explosionRange;
+        private int totalDestroyedBoxes;
+        private int degreesOfFreedom;
+        private int accessiblePlaces;
+        private int remainingBoxes;
+
+        void capture(HypersonicGameEngine gameEngine, boolean withAccessiblePlaces) {
+            Bomberman bomberman = gameEngine.getBombermen()[0];
+            int id = bomberman.getId();
+
+            dead = gameEngine.isBombermenDead(id);
+            totalAvailableBombs = bomberman.getTotalAvailableBombs();
+            explosionRange = bomberman.getExplosionRange();
+            totalDestroyedBoxes = gameEngine.getTotalDestroyedBoxes(id);
+            degreesOfFreedom = gameEngine.getDegreesOfFeedom(bomberman);
+            // the engine keeps the last flood fill, so the one made after a round is reused before the next one
+            accessiblePlaces = withAccessiblePlaces ? gameEngine.accessiblePlacesFor(id) : 0;
+            remainingBoxes = gameEngine.getRemainingBoxes();
+        }
+
+        public boolean isDead() {
+            return dead;
+        }
+
+        public int getTotalAvailableBombs() {
+            return totalAvailableBombs;
+        }
+
+        public int getExplosionRange() {
+            return explosionRange;
+        }
+
+        public int getTotalDestroyedBoxes() {
+            return totalDestroyedBoxes;
+        }
+
+        public int getDegreesOfFreedom() {
+            return degreesOfFreedom;
+        }
+
+        /**
+         * @return the places the player can reach, or 0 unless the evaluation
+         * {@link RoundEvaluation#readsAccessiblePlaces() reads them}
+         */
+        public int getAccessiblePlaces() {
+            return accessiblePlaces;
+        }
+
+        public int getRemainingBoxes() {
+            return remainingBoxes;
+        }
+    }
+
+    /**
+     * Picks the parents of the offspring of a generation, the same chromosome possibly more than once. Scores may be
+     * negative.
+     */
+    public interface Selection {
+
+        /**
+         * Called once per generation, before the parents of its offspring are selected
+         *
+         * @param scores the score of every chromosome
+         * @param ranking the chromosomes from the highest score down
+         * @param size the number of chromosomes
+         */
+        void rank(double[] scores, int[] ranking, int size);
+
+        /**
+         * @return the index of the selected chromosome
+         */
+        int select(Random random);
+    }
+
+    /**
+     * Selects chromosomes with a chance proportional to how much their score exceeds the worst one, with a binary
+     * search over the running totals of the scores. The worst chromosome is never selected, unless all share its
+     * score and then every chromosome is as likely.
+     */
+    public static class RouletteSelection implements Selection {
+
+        private double[] totals = new double[0];
+        private int size;
+
+        @Override
+        public void rank(double[] scores, int[] ranking, int size) {
+            if (totals.length < size) {
+                totals = new double[size];
+            }
+            this.size = size;
+
+            double worst = scores[ranking[size - 1]];
+            double total = 0.0;
+            for (int i = 0; i < size; i++) {
+                total += scores[i] - worst;
+                totals[i] = total;
+            }
+        }
+
+        @Override
+        public int select(Random random) {
+            double total = totals[size - 1];
+            if (total <= 0.0) {
+                return random.nextInt(size);
+            }
+
+            double slice = total * random.nextDouble();
+
+            // the first running total above the slice
+            int low = 0;
+            int high = size - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (totals[middle] > slice) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return low;
+        }
+
+        @Override
+        public String toString() {
+            return "RouletteSelection{}";
+        }
+    }
+
+    /**
+     * Selects the best of a few chromosomes drawn at random. The more are drawn, the less the weaker ones get
+     * selected.
+     */
+    public static class TournamentSelection implements Selection {
+
+        private final int tournamentSize;
+
+        private double[] scores;
+        private int size;
+
+        public TournamentSelection(int tournamentSize) {
+            if (tournamentSize < 1) {
+                throw new IllegalArgumentException("Tournament should draw at least one chromosome");
+            }
+            this.tournamentSize = tournamentSize;
+        }
+
+        @Override
+        public void rank(double[] scores, int[] ranking, int size) {
+            this.scores = scores;
+            this.size = size;
+        }
+
+        @Override
+        public int select(Random random) {
+            int winner = random.nextInt(size);
+            for (int i = 1; i < tournamentSize; i++) {
+                int contender = random.nextInt(size);
+                if (scores[contender] > scores[winner]) {
+                    winner = contender;
+                }
+            }
+            return winner;
+        }
+
+        @Override
+        public String toString() {
+            return "TournamentSelection{" +
+                    "tournamentSize=" + tournamentSize +
+                    '}';
+        }
+    }
+
+    /**
+     * Selects chromosomes with a chance proportional to their rank: out of n chromosomes, the best is n times as
+     * likely to be selected as the worst. Only the order of the scores matters, not how far apart they are.
+     */
+    public static class RankSelection implements Selection {
+
+        /**
+         * The largest population whose ranks weigh no more than an int holds
+         */
+        public static final int MAX_SIZE = 65_535;
+
+        private int[] ranking;
+        private int size;
+
+        @Override
+        public void rank(double[] scores, int[] ranking, int size) {
+            if (size > MAX_SIZE) {
+                throw new IllegalArgumentException("Cannot rank " + size + " chromosomes, at most " + MAX_SIZE);
+            }
+
+            this.ranking = ranking;
+            this.size = size;
+        }
+
+        @Override
+        public int select(Random random) {
+            // the weight of the rank r, from 0, is n - r, so the ranks up to r weigh (r + 1) * n - r * (r + 1) / 2.
+            // The products overflow an int well before that total does, so they are computed in longs.
+            int slice = random.nextInt((int) ((long) size * (size + 1) / 2));
+
+            // the first rank whose running total is above the slice
+            int low = 0;
+            int high = size - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if ((middle + 1L) * size - (long) middle * (middle + 1) / 2 > slice) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return ranking[low];
+        }
+
+        @Override
+        public String toString() {
+            return "RankSelection{}";
+        }
+    }
+
+    /**
+     * Plays the opponents of the player when a plan is simulated. Actions should only depend on the state they are
+     * played from, so that a plan scores the same whatever was scored before it and scores can be cached. Policies
+     * are shared by every thread scoring plans.
+     */
+    @FunctionalInterface
+    public interface OpponentPolicy {
+
+        /**
+         * @param opponent one of the bombermen of the engine, alive
+         */
+        SimplifiedAction act(HypersonicGameEngine gameEngine, Bomberman opponent);
+    }
+
+    /**
+     * Opponents that stay where they are. Their bombs on the board still go off.
+     */
+    public static class StayOpponents implements OpponentPolicy {
+
+        @Override
+        public SimplifiedAction act(HypersonicGameEngine gameEngine, Bomberman opponent) {
+            return SimplifiedAction.STAY;
+        }
+
+        @Override
+        public String toString() {
+            return "StayOpponents{}";
+        }
+    }
+
+    /**
+     * Opponents that place a bomb whenever they have one, where they stand, and then run from the blasts. A
+     * pessimistic guess of what they will do, that keeps the player out of the places they may soon blow up.
+     */
+    public static class GreedyOpponents implements OpponentPolicy {
+
+        // the moves towards each neighbour, in the order of the offsets
+        private static final SimplifiedAction[] MOVES = {
+                SimplifiedAction.MOVE_UP,
+                SimplifiedAction.MOVE_DOWN,
+                SimplifiedAction.MOVE_LEFT,
+                SimplifiedAction.MOVE_RIGHT };
+        private static final int[] X_OFFSETS = { 0, 0, -1, 1 };
+        private static final int[] Y_OFFSETS = { -1, 1, 0, 0 };
+
+        @Override
+        public SimplifiedAction act(HypersonicGameEngine gameEngine, Bomberman opponent) {
+            int x = opponent.getCell().getX();
+            int y = opponent.getCell().getY();
+
+            int turnsBeforeBlast = gameEngine.getTurnsBeforeBlast(x, y);
+            if (turnsBeforeBlast == HypersonicGameEngine.NO_BLAST) {
+                return opponent.getBombsToPlace() > 0 ? SimplifiedAction.BOMB_AND_STAY : SimplifiedAction.STAY;
+            }
+
+            // moves to the neighbour blasts reach last, or to the first one it can move to if they all are as close
+            SimplifiedAction escape = SimplifiedAction.STAY;
+            int escapeTurns = Integer.MIN_VALUE;
+            for (int i = 0; i < MOVES.length; i++) {
+                int nextX = x + X_OFFSETS[i];
+                int nextY = y + Y_OFFSETS[i];
+                if (gameEngine.canMoveTo(nextX, nextY)) {
+                    int turns = gameEngine.getTurnsBeforeBlast(nextX, nextY);
+                    if (turns > escapeTurns) {
+                        escape = MOVES[i];
+                        escapeTurns = turns;
+                    }
+                }
+            }
+
+            return escape;
+        }
+
+        @Override
+        public String toString() {
+            return "GreedyOpponents{}";
+        }
+    }
+
+    /**
+     * Tells whether a bomberman on a cell, some turns after the state it was computed from, can still outrun the
+     * bombs of that state. The bombs are first played out, every bomberman staying, to find the cells each turn
+     * blasts and the cells free on each turn, so that a cell blasted twice is deadly both times and a box cleared by
+     * a blast lets the next blasts and the bomberman through. It then works backwards over cells and turns, from the
+     * turn the last blast goes off: a cell can be escaped from on a turn if no blast reaches it on the next one, and
+     * the bomberman can stay or move from it to a cell free on that next turn that can be escaped from then.<br>
+     * Only the bombs on the board when it is computed are known. Bombs placed later may trap the bomberman where
+     * the oracle finds a way out, and, chained to the known ones, clear a box it still counts as standing.
+     */
+    public static final class EscapeOracle {
+
+        private int width;
+        private int words;
+        // from the turn the last blast goes off on, every cell can be escaped from
+        private int horizon;
+
+        // one bit per cell and turn, at [turn * words + w]
+        private long[] blastedCells = new long[0];
+        private long[] freeCells = new long[0];
+        private long[] escapable = new long[0];
+
+        private SimplifiedAction[] stays = new SimplifiedAction[0];
+
+        /**
+         * Plays the engine forward and rewinds it back to its state
+         */
+        public void compute(HypersonicGameEngine gameEngine) {
+            GridTopology topology = gameEngine.getTopology();
+            width = topology.getWidth();
+            int size = width * topology.getHeight();
+            words = (size + 63) >>> 6;
+
+            // chains only bring bombs forward, so none goes off later than it is now known to
+            horizon = 0;
+            for (int cell = 0; cell < size; cell++) {
+                int turns = gameEngine.getTurnsBeforeBlast(cell % width, cell / width);
+                if (turns != HypersonicGameEngine.NO_BLAST) {
+                    horizon = Math.max(horizon, turns);
+                }
+            }
+
+            int length = (horizon + 1) * words;
+            if (escapable.length < length) {
+                blastedCells = new long[length];
+                freeCells = new long[length];
+                escapable = new long[length];
+            }
+            Arrays.fill(blastedCells, 0, length, 0L);
+            Arrays.fill(freeCells, 0, length, 0L);
+
+            int bombermen = gameEngine.getBombermen().length;
+            if (stays.length != bombermen) {
+                stays = new SimplifiedAction[bombermen];
+                Arrays.fill(stays, SimplifiedAction.STAY);
+            }
+
+            // the cells a blast reaches on the next turn are the ones it is about to go off on
+            int mark = gameEngine.mark();
+            for (int turn = 0; turn <= horizon; turn++) {
+                for (int cell = 0; cell < size; cell++) {
+                    int x = cell % width;
+                    int y = cell / width;
+
+                    if (gameEngine.canMoveTo(x, y)) {
+                        freeCells[turn * words + (cell >>> 6)] |= 1L << cell;
+                    }
+                    if (turn < horizon && gameEngine.getTurnsBeforeBlast(x, y) == 1) {
+                        blastedCells[(turn + 1) * words + (cell >>> 6)] |= 1L << cell;
+                    }
+                }
+
+                if (turn < horizon) {
+                    gameEngine.perform(true, stays);
+                }
+            }
+            gameEngine.rewind(mark);
+
+            Arrays.fill(escapable, horizon * words, length, -1L);
+
+            // blasts go off before the bombermen move, so the cell is left on the turn it is blasted by then
+            for (int turn = horizon - 1; turn >= 0; turn--) {
+                int next = turn + 1;
+                Arrays.fill(escapable, turn * words, next * words, 0L);
+
+                for (int cell = 0; cell < size; cell++) {
+                    if (isSet(blastedCells, next, cell)) {
+                        continue;
+                    }
+
+                    boolean escapes = isSet(escapable, next, cell);
+                    for (int direction = 0; direction < GridTopology.DIRECTIONS && !escapes; direction++) {
+                        int neighbour = topology.neighbour(cell, direction);
+                        escapes = neighbour >= 0
+                                && isSet(freeCells, next, neighbour)
+                                && isSet(escapable, next, neighbour);
+                    }
+
+                    if (escapes) {
+                        escapable[turn * words + (cell >>> 6)] |= 1L << cell;
+                    }
+                }
+            }
+        }
+
+        /**
+         * @param turns the turns played since the state the oracle was computed from
+         */
+        public boolean canEscape(int x, int y, int turns) {
+            return turns >= horizon || isSet(escapable, turns, y * width + x);
+        }
+
+        private boolean isSet(long[] cells, int turn, int cell) {
+            return (cells[turn * words + (cell >>> 6)] & (1L << cell)) != 0;
+        }
+    }
+
+    /**
+     * Scores chromosomes on an engine, sharing the simulation of the genes they start with. The journal keeps the
+     * states along the genes of the last chromosome, so the next one only rewinds to the prefix they share, and a
+     * {@link SnapshotCache} keeps a state every few genes for the chromosomes that leave that path.
+     */
+    static final class PrefixWalk {
+
+        // copying an engine costs about as much as simulating a gene, so nodes are only kept every few genes
+        private static final int SNAPSHOT_INTERVAL = 4;
+        private static final int SNAPSHOTS = 512;
+        private static final int TRANSPOSITION_TABLE_SIZE = 1 << 14;
+
+        private static final SimplifiedAction[] POSSIBLE_ACTIONS = SimplifiedAction.values();
+
+        private final RoundEvaluation evaluation;
+        private final boolean withAccessiblePlaces;
+        private final OpponentPolicy opponents;
+        // the actions of the opponents of the round played
+        private final SimplifiedAction[] others;
+        private final RoundStats before;
+        private final RoundStats after;
+        private final TranspositionTable transpositions;
+        private final SnapshotCache snapshots;
+        private final EscapeOracle escapes;
+
+        // keys[i], marks[i] and scores[i] are the node key, journal mark and score of the first i genes of the path,
+        // ceilings[i] the lowest bound met on the way to that node
+        private final long[] keys;
+        private final int[] marks;
+        private final double[] scores;
+        private final double[] ceilings;
+        private final byte[] path;
+        private int depth;
+        // whether the player died or got trapped on the last node of the path, which ends every plan through it
+        private boolean dead;
+        // the journal can only go back to the nodes of the path from this depth, the state restored last
+        private int base;
+
+        private HypersonicGameEngine gameEngine;
+        private HypersonicGameEngine origin;
+
+        PrefixWalk(RoundEvaluation evaluation, OpponentPolicy opponents, int geneLength) {
+            this.evaluation = evaluation;
+            this.withAccessiblePlaces = evaluation.readsAccessiblePlaces();
+            this.opponents = opponents;
+            this.others = new SimplifiedAction[HypersonicGameEngine.MAX_BOMBERMEN - 1];
+            this.before = new RoundStats();
+            this.after = new RoundStats();
+            this.transpositions = new TranspositionTable(TRANSPOSITION_TABLE_SIZE);
+            this.snapshots = new SnapshotCache(SNAPSHOTS);
+            this.escapes = new EscapeOracle();
+            this.keys = new long[geneLength + 1];
+            this.marks = new int[geneLength + 1];
+            this.scores = new double[geneLength + 1];
+            this.ceilings = new double[geneLength + 1];
+            this.path = new byte[geneLength];
+        }
+
+        /**
+         * Walks from the current state of the engine, until {@link #finish()} puts it back in that state
+         */
+        void start(HypersonicGameEngine gameEngine) {
+            long rootHash = gameEngine.getHash();
+            if (origin == null || !origin.canCopyFrom(gameEngine)) {
+                origin = new HypersonicGameEngine(gameEngine);
+                snapshots.clear();
+                escapes.compute(origin);
+            } else if (rootHash != keys[0]) {
+                origin.copyFrom(gameEngine);
+                snapshots.clear();
+                escapes.compute(origin);
+            }
+
+            this.gameEngine = gameEngine;
+            keys[0] = rootHash;
+            ceilings[0] = Double.POSITIVE_INFINITY;
+            marks[0] = gameEngine.mark();
+            depth = 0;
+            dead = false;
+            base = 0;
+        }
+
+        /**
+         * Scores the genes, cached by the hash of the state the walk started from and the genes. The walk stops at
+         * the death of the player, once the {@link EscapeOracle} leaves it no way out, or once the evaluation bounds
+         * the score below the cutoff, which is then the score. Genes the player could not carry out are replaced by
+         * the action it carried out instead.
+         *
+         * @param cutoff the score a plan has to be able to reach to be walked to the end, or
+         * {@link Double#NEGATIVE_INFINITY}
+         */
+        double evaluate(byte[] genes, int offset, double cutoff) {
+            int length = path.length;
+
+            for (int i = 0; i < length; i++) {
+                keys[i + 1] = keys[i] * 0x9E3779B97F4A7C15L + genes[offset + i] + 1;
+            }
+
+            double cached = transpositions.get(keys[length]);
+            if (!Double.isNaN(cached)) {
+                return Math.max(cached, cutoff);
+            }
+
+            int shared = 0;
+            while (shared < depth && path[shared] == genes[offset + shared]) {
+                shared++;
+            }
+
+            if (dead && shared == depth) {
+                transpositions.put(keys[length], scores[depth]);
+                return Math.max(scores[depth], cutoff);
+            }
+
+            int rewindable = shared >= base ? shared : -1;
+
+            int from = -1;
+            for (int node = (length - 1) / SNAPSHOT_INTERVAL * SNAPSHOT_INTERVAL;
+                 node > rewindable && node > 0;
+                 node -= SNAPSHOT_INTERVAL) {
+
+                int snapshot = snapshots.find(keys[node]);
+                if (snapshot >= 0) {
+                    // the genes of the prefix were already carried out, and the plan would be cut short on the way
+                    if (snapshots.ceilingOf(snapshot) < cutoff) {
+                        return cutoff;
+                    }
+
+                    snapshots.restore(snapshot, gameEngine);
+                    scores[node] = snapshots.scoreOf(snapshot);
+                    ceilings[node] = snapshots.ceilingOf(snapshot);
+                    from = node;
+                    break;
+                }
+            }
+
+            if (from >= 0) {
+                base = from;
+                marks[from] = gameEngine.mark();
+            } else if (rewindable >= 0) {
+                from = rewindable;
+                gameEngine.rewind(marks[from]);
+            } else {
+                from = 0;
+                base = 0;
+                gameEngine.copyFrom(origin);
+                marks[0] = gameEngine.mark();
+            }
+
+            for (int i = from; i < length; i++) {
+                before.capture(gameEngine, withAccessiblePlaces);
+
+                ceilings[i + 1] = Math.min(ceilings[i], scores[i] + evaluation.bound(before, i, length));
+                if (ceilings[i + 1] < cutoff) {
+                    endPath(genes, offset, i, false);
+                    return cutoff;
+                }
+
+                SimplifiedAction carriedOut = perform(gameEngine, POSSIBLE_ACTIONS[genes[offset + i]], opponents, others);
+                if (carriedOut.ordinal() != genes[offset + i]) {
+                    replaceGene(genes, offset, i, carriedOut);
+                }
+
+                after.capture(gameEngine, withAccessiblePlaces);
+
+                scores[i + 1] = scores[i] + evaluation.evaluate(before, after, i, length);
+                marks[i + 1] = gameEngine.mark();
+
+                Cell cell = gameEngine.getBombermen()[0].getCell();
+                if (after.isDead() || !escapes.canEscape(cell.getX(), cell.getY(), i + 1)) {
+                    endPath(genes, offset, i + 1, true);
+                    transpositions.put(keys[length], scores[i + 1]);
+                    return Math.max(scores[i + 1], cutoff);
+                }
+
+                if ((i + 1) % SNAPSHOT_INTERVAL == 0 && i + 1 < length) {
+                    snapshots.store(keys[i + 1], gameEngine, scores[i + 1], ceilings[i + 1]);
+                }
+            }
+
+            endPath(genes, offset, length, false);
+
+            transpositions.put(keys[length], scores[length]);
+            return Math.max(scores[length], cutoff);
+        }
+
+        /**
+         * Plays a round, the opponents simulated by the engine playing the actions of the policy
+         *
+         * @param others receives the actions of the opponents
+         * @return the action the player actually carried out
+         */
+        static SimplifiedAction perform(
+                HypersonicGameEngine gameEngine,
+                SimplifiedAction action,
+                OpponentPolicy opponents,
+                SimplifiedAction[] others) {
+
+            Bomberman[] bombermen = gameEngine.getBombermen();
+            for (int i = 1; i < bombermen.length; i++) {
+                others[i - 1] = gameEngine.isBombermenDead(bombermen[i].getId())
+                        ? SimplifiedAction.STAY
+                        : opponents.act(gameEngine, bombermen[i]);
+            }
+
+            return gameEngine.perform(true, action, others);
+        }
+
+        /**
+         * Replaces the gene, and the keys of the nodes after it
+         */
+        private void replaceGene(byte[] genes, int offset, int gene, SimplifiedAction action) {
+            genes[offset + gene] = (byte) action.ordinal();
+            for (int i = gene; i < path.length; i++) {
+                keys[i + 1] = keys[i] * 0x9E3779B97F4A7C15L + genes[offset + i] + 1;
+            }
+        }
+
+        private void endPath(byte[] genes, int offset, int depth, boolean dead) {
+            System.arraycopy(genes, offset, path, 0, depth);
+            this.depth = depth;
+            this.dead = dead;
+        }
+
+        /**
+         * Brings the engine back to the state the walk started from
+         */
+        void finish() {
+            if (base == 0) {
+                gameEngine.rewind(marks[0]);
+            } else {
+                gameEngine.copyFrom(origin);
+            }
+            gameEngine = null;
+        }
+    }
+
+    /**
+     * Fixed number of engine copies with a score and a ceiling each, found by a 64-bit key, the least recently used
+     * being replaced first. Copies are only allocated the first time their slot is used.
+     */
+    static final class SnapshotCache {
+
+        private final long[] keys;
+        private final double[] scores;
+        private final double[] ceilings;
+        private final HypersonicGameEngine[] engines;
+
+        // slots from the most to the least recently used
+        private final int[] older;
+        private final int[] newer;
+        private int newest;
+        private int oldest;
+        private int size;
+
+        // open addressing from keys to slots plus one, 0 marks an empty bucket
+        private final int[] buckets;
+        private final int mask;
+
+        SnapshotCache(int capacity) {
+            this.keys = new long[capacity];
+            this.scores = new double[capacity];
+            this.ceilings = new double[capacity];
+            this.engines = new HypersonicGameEngine[capacity];
+            this.older = new int[capacity];
+            this.newer = new int[capacity];
+            this.buckets = new int[Integer.highestOneBit(capacity) << 2];
+            this.mask = buckets.length - 1;
+            clear();
+        }
+
+        void clear() {
+            Arrays.fill(buckets, 0);
+            newest = -1;
+            oldest = -1;
+            size = 0;
+        }
+
+        /**
+         * @return the slot of the key, now the most recently used, or -1 if there is none
+         */
+        int find(long key) {
+            for (int bucket = bucketOf(key); buckets[bucket] != 0; bucket = (bucket + 1) & mask) {
+                int slot = buckets[bucket] - 1;
+                if (keys[slot] == key) {
+                    unlink(slot);
+                    linkNewest(slot);
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        double scoreOf(int slot) {
+            return scores[slot];
+        }
+
+        double ceilingOf(int slot) {
+            return ceilings[slot];
+        }
+
+        void restore(int slot, HypersonicGameEngine gameEngine) {
+            gameEngine.copyFrom(engines[slot]);
+        }
+
+        void store(long key, HypersonicGameEngine gameEngine, double score, double ceiling) {
+            if (find(key) >= 0) {
+                return;
+            }
+
+            int slot;
+            if (size < keys.length) {
+                slot = size++;
+            } else {
+                slot = oldest;
+                unlink(slot);
+                unindex(slot);
+            }
+
+            if (engines[slot] == null || !engines[slot].canCopyFrom(gameEngine)) {
+                engines[slot] = new HypersonicGameEngine(gameEngine);
+            } else {
+                engines[slot].copyFrom(gameEngine);
+            }
+            keys[slot] = key;
+            scores[slot] = score;
+            ceilings[slot] = ceiling;
+
+            int bucket = bucketOf(key);
+            while (buckets[bucket] != 0) {
+                bucket = (bucket + 1) & mask;
+            }
+            buckets[bucket] = slot + 1;
+            linkNewest(slot);
+        }
+
+        private void linkNewest(int slot) {
+            older[slot] = newest;
+            newer[slot] = -1;
+            if (newest >= 0) {
+                newer[newest] = slot;
+            } else {
+                oldest = slot;
+            }
+            newest = slot;
+        }
+
+        private void unlink(int slot) {
+            if (older[slot] >= 0) {
+                newer[older[slot]] = newer[slot];
+            } else {
+                oldest = newer[slot];
+            }
+            if (newer[slot] >= 0) {
+                older[newer[slot]] = older[slot];
+            } else {
+                newest = older[slot];
+            }
+        }
+
+        /**
+         * Empties the bucket of the slot, shifting back the keys probed past it so that they can still be found
+         */
+        private void unindex(int slot) {
+            int hole = bucketOf(keys[slot]);
+            while (buckets[hole] != slot + 1) {
+                hole = (hole + 1) & mask;
+            }
+            buckets[hole] = 0;
+
+            for (int bucket = (hole + 1) & mask; buckets[bucket] != 0; bucket = (bucket + 1) & mask) {
+                int home = bucketOf(keys[buckets[bucket] - 1]);
+                if (((bucket - home) & mask) >= ((bucket - hole) & mask)) {
+                    buckets[hole] = buckets[bucket];
+                    buckets[bucket] = 0;
+                    hole = bucket;
+                }
+            }
+        }
+
+        private int bucketOf(long key) {
+            return (int) (key ^ (key >>> 32)) & mask;
+        }
+    }
+
+    /**
+     * Chromosomes stored row after row in a single array, each gene being the ordinal of its action, with the score
+     * of every row alongside
+     */
+    private static final class Population {
+
+        private final int geneLength;
+        private final byte[] genes;
+        private final double[] scores;
+        // whether the score of a row is the one of its current genes
+        private final boolean[] evaluated;
+        private int size;
+
+        Population(int capacity, int geneLength) {
+            this.geneLength = geneLength;
+            this.genes = new byte[capacity * geneLength];
+            this.scores = new double[capacity];
+            this.evaluated = new boolean[capacity];
+        }
+
+        void copyRow(Population from, int fromRow, int toRow) {
+            System.arraycopy(from.genes, fromRow * geneLength, genes, toRow * geneLength, geneLength);
+            scores[toRow] = from.scores[fromRow];
+            evaluated[toRow] = from.evaluated[fromRow];
+        }
+
+        /**
+         * Writes the genes of the first row before the given one, then the genes of the second row from there on
+         */
+        void crossRows(Population from, int firstRow, int secondRow, int gene, int toRow) {
+            System.arraycopy(from.genes, firstRow * geneLength, genes, toRow * geneLength, gene);
+            System.arraycopy(
+                    from.genes,
+                    secondRow * geneLength + gene,
+                    genes,
+                    toRow * geneLength + gene,
+                    geneLength - gene);
+            scores[toRow] = from.scores[firstRow];
+            evaluated[toRow] = from.evaluated[firstRow];
+        }
+
+        /**
+         * Drops the rows that were not evaluated, keeping the others in order
+         */
+        void compact() {
+            int kept = 0;
+            for (int row = 0; row < size; row++) {
+                if (evaluated[row]) {
+                    if (kept != row) {
+                        System.arraycopy(genes, row * geneLength, genes, kept * geneLength, geneLength);
+                        scores[kept] = scores[row];
+                        evaluated[kept] = true;
+                    }
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+
+        void sortByGenes(int[] rows) {
+            sort(rows, false);
+        }
+
+        /**
+         * Sorts from the highest score down
+         */
+        void sortByScore(int[] rows) {
+            sort(rows, true);
+        }
+
+        /**
+         * Binary insertion sort of the rows, stable: rows are few and moving them is a single array copy
+         */
+        private void sort(int[] rows, boolean byScore) {
+            for (int i = 0; i < size; i++) {
+                int row = i;
+                int low = 0;
+                int high = i;
+                while (low < high) {
+                    int middle = (low + high) >>> 1;
+                    if (compare(rows[middle], row, byScore) <= 0) {
+                        low = middle + 1;
+                    } else {
+                        high = middle;
+                    }
+                }
+                System.arraycopy(rows, low, rows, low + 1, i - low);
+                rows[low] = row;
+            }
+        }
+
+        private int compare(int row, int another, boolean byScore) {
+            if (byScore) {
+                return Double.compare(scores[another], scores[row]);
+            }
+            for (int i = 0; i < geneLength; i++) {
+                int comparison = genes[row * geneLength + i] - genes[another * geneLength + i];
+                if (comparison != 0) {
+                    return comparison;
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * The nodes of a search tree, in primitive arrays allocated once. The children of a node are the actions of the
+     * player from its state, one per {@link SimplifiedAction}, side by side in the order of the actions.
+     */
+    private static final class SearchTree {
+
+        static final int ROOT = 0;
+
+        // the first child of a node that was not expanded
+        static final int NO_CHILDREN = -1;
+
+        // the visits of a child whose action the player cannot carry out, walks go to the action carried out instead
+        static final int ALIASED = -1;
+
+        private static final int ACTIONS = SimplifiedAction.values().length;
+
+        private final int[] children;
+        private final int[] visits;
+        private final double[] totals;
+        // the node each node was copied from, while a subtree is copied
+        private final int[] origins;
+        private int size;
+
+        SearchTree(int capacity) {
+            this.children = new int[capacity];
+            this.visits = new int[capacity];
+            this.totals = new double[capacity];
+            this.origins = new int[capacity];
+            clear();
+        }
+
+        /**
+         * Drops every node but a new root
+         */
+        void clear() {
+            children[ROOT] = NO_CHILDREN;
+            visits[ROOT] = 0;
+            totals[ROOT] = 0.0;
+            size = 1;
+        }
+
+        /**
+         * @return whether there was room left for the children of the node
+         */
+        boolean expand(int node) {
+            if (size + ACTIONS > children.length) {
+                return false;
+            }
+
+            children[node] = size;
+            Arrays.fill(children, size, size + ACTIONS, NO_CHILDREN);
+            Arrays.fill(visits, size, size + ACTIONS, 0);
+            Arrays.fill(totals, size, size + ACTIONS, 0.0);
+            size += ACTIONS;
+            return true;
+        }
+
+        /**
+         * Replaces the nodes with the subtree of the given node of another tree, which becomes the root. Nodes are
+         * copied breadth first, so each one is copied before its children and the subtree ends up packed.
+         */
+        void copySubtree(SearchTree from, int root) {
+            origins[ROOT] = root;
+            visits[ROOT] = from.visits[root];
+            totals[ROOT] = from.totals[root];
+            size = 1;
+
+            for (int node = 0; node < size; node++) {
+                int first = from.children[origins[node]];
+                if (first == NO_CHILDREN) {
+                    children[node] = NO_CHILDREN;
+                    continue;
+                }
+
+                children[node] = size;
+                for (int i = 0; i < ACTIONS; i++) {
+                    origins[size + i] = first + i;
+                }
+                System.arraycopy(from.visits, first, visits, size, ACTIONS);
+                System.arraycopy(from.totals, first, totals, size, ACTIONS);
+                size += ACTIONS;
+            }
+        }
+
+        void visit(int node, double score) {
+            visits[node]++;
+            totals[node] += score;
+        }
+
+        void alias(int node) {
+            visits[node] = ALIASED;
+        }
+    }
+
+    /**
+     * Hands each thread an engine of its own, overwritten in place with the requested state, so that setting up a
+     * search costs a few array copies rather than a new engine. An engine is only allocated the first time a thread
+     * asks, or when the grid or the simulated bombermen change.<br>
+     * The engine a thread gets is overwritten by its next request to the same pool.
+     */
+    public static final class EnginePool {
+
+        private final ThreadLocal<HypersonicGameEngine> engines = new ThreadLocal<>();
+
+        /**
+         * @return the calling thread's engine, in the state last read by the repository
+         */
+        public HypersonicGameEngine get(InputRepository repo, Bomberman... bombermen) {
+            HypersonicGameEngine engine = engines.get();
+
+            if (engine == null || !engine.resetTo(repo, bombermen)) {
+                engine = new HypersonicGameEngine(repo, bombermen);
+                engines.set(engine);
+            }
+
+            return engine;
+        }
+
+        /**
+         * @return the calling thread's engine, in the same state as the source
+         */
+        public HypersonicGameEngine copyOf(HypersonicGameEngine source) {
+            HypersonicGameEngine engine = engines.get();
+
+            if (engine != null && engine != source && engine.canCopyFrom(source)) {
+                engine.copyFrom(source);
+            } else {
+                engine = new HypersonicGameEngine(source);
+                engines.set(engine);
+            }
+
+            return engine;
+        }
+    }
+
+    /**
+     * Fixed-size cache from 64-bit state hashes to scores, backed by primitive arrays. Each hash has a single slot,
+     * and a newer entry replaces whatever was there. The hash {@code 0} marks empty slots, so it is never found.
+     */
+    public static final class TranspositionTable {
+
+        private final long[] keys;
+        private final double[] values;
+        private final int mask;
+
+        /**
+         * @param capacity the number of entries, rounded up to a power of two
+         */
+        public TranspositionTable(int capacity) {
+            int size = Integer.highestOneBit(Math.max(1, capacity - 1) << 1);
+            this.keys = new long[size];
+            this.values = new double[size];
+            this.mask = size - 1;
+        }
+
+        /**
+         * @return the score stored for the hash, or {@link Double#NaN} if there is none
+         */
+        public double get(long hash) {
+            int index = indexOf(hash);
+            return hash != 0L && keys[index] == hash ? values[index] : Double.NaN;
+        }
+
+        public void put(long hash, double value) {
+            int index = indexOf(hash);
+            keys[index] = hash;
+            values[index] = value;
+        }
+
+        public void clear() {
+            Arrays.fill(keys, 0L);
+        }
+
+        private int indexOf(long hash) {
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+
+    /**
+     * Simulates the game rules.<br>
+     * The board is kept as bitboards: one bit per cell, indexed by {@code y * width + x}, packed into 64-bit words.
+     * Moves, blast rays and box destruction are resolved with bit tests and word-wide masks instead of walking
+     * object grids.<br>
+     * Bombs live in parallel primitive arrays and every buffer is preallocated, so once the undo journal has grown
+     * to its working size neither {@link #perform(boolean, SimplifiedAction)} nor {@link #rewind(int)} allocate.<br>
+     * A 64-bit Zobrist hash of the state is kept up to date as it changes, see {@link #getHash()}.
+     */
+    public static final class HypersonicGameEngine {
+
+        /**
+         * Returned by {@link #getTurnsBeforeBlast(int, int)} for cells no known blast reaches
+         */
+        public static final int NO_BLAST = Integer.MAX_VALUE;
+
+        /**
+         * Returned by {@link #getDistance(int, int)} for cells the last flood fill did not reach
+         */
+        public static final int UNREACHABLE = -1;
+
+        private static final int MAX_BOMBERMEN = 4;
+
+        private static final CellType[] CELL_TYPES = CellType.values();
+        private static final ItemType[] ITEM_TYPES = ItemType.values();
+        private static final SimplifiedAction[] ACTIONS = SimplifiedAction.values();
+        private static final int ACTIONS_PER_BOMB_CHOICE = 5;
+
+        private static final int KIND_NONE = 0;
+        private static final int KIND_EXTRA_RANGE = 1;
+        private static final int KIND_EXTRA_BOMB = 2;
+
+        // undo journal opcodes
+        private static final int UNDO_TURN = 0;
+        private static final int UNDO_EXPLOSION = 1;
+        private static final int UNDO_BOX = 2;
+        private static final int UNDO_ITEM = 3;
+        private static final int UNDO_CREDIT = 4;
+        private static final int UNDO_DEATH = 5;
+        private static final int UNDO_PLACEMENT = 6;
+        private static final int UNDO_MOVE = 7;
+        private static final int UNDO_PICKUP = 8;
+        private static final int UNDO_BLAST_TURN = 9;
+        private static final int UNDO_DETONATION = 10;
+
+        // bombs go off at most 8 turns after being placed, a wheel bucket holds the ones due on turns equal mod 8
+        private static final int WHEEL_SIZE = 8;
+        private static final int BOMB_TIMER = 8;
+
+        private final int height;
+        private final int width;
+        private final int words;
+
+        // shared with every engine built on the same block layout, never written
+        private final GridTopology topology;
+        private final long[] blocks;
+
+        private final long[] boxes;
+        private final long[] extraRangeBoxes;
+        private final long[] extraBombBoxes;
+        private final long[] extraRangeItems;
+        private final long[] extraBombItems;
+        private final long[] bombCells;
+        private final long[] bombermenCells;
+
+        // scratch boards, only meaningful while resolving explosions
+        private final long[] blast;
+        private final long[] exploding;
+        private final long[] hitBoxes;
+        private final long[][] hitBoxesByOwner;
+        private final long[] hitItems;
+
+        // a bomb keeps its slot until it goes off, free slots in [0, bombSlots) have no position and are listed in
+        // freeSlots; bombAt maps a cell to its slot or -1. Each wheel bucket is a doubly linked list of slots.
+        private final int[] bombOwners;
+        private final int[] bombExplosionTurns;
+        private final int[] bombRanges;
+        private final int[] bombPositions;
+        private final int[] bombNext;
+        private final int[] bombPrevious;
+        private final int[] bombAt;
+        private final int[] wheel;
+        private final int[] freeSlots;
+        private int freeCount;
+        private int bombSlots;
+        private int bombCount;
+
+        // danger map: the turn each cell is next hit by a blast, and the turn each bomb goes off, chains included.
+        // Its changes are journaled from dangerMark on, so rewinding no further than that restores it.
+        private final int[] blastTurns;
+        private final int[] bombDetonations;
+        private final int[] dangerQueue;
+        private boolean dangerStale;
+        private int dangerMark;
+        private int dangerRebuilds;
+
+        // flood fill: a cell was reached by the last fill if its stamp is the current generation
+        private final int[] reachStamps;
+        private final int[] distances;
+        private final int[] reachQueue;
+        private int reachGeneration;
+        private int reachedCount;
+        // the last fill is kept for as long as the state hashes the same and it is asked from the same origin
+        private int reachedOrigin;
+        private long reachedHash;
+
+        private final int[] explosionQueue;
+        private final Cell[] cells;
+        private final Bomberman[] bombermen;
+        private final boolean[] deadBombermen;
+
+        private int[] destroyedBoxesCount;
+
+        private int turn;
+        private long hash;
+
+        private int[] journal;
+        private int journalSize;
+
+        /**
+         * Builder with initial state
+         */
+        public HypersonicGameEngine(
+                CellType[][] grid,
+                List<Bomb> bombs,
+                List<Item> items,
+                Bomberman... bombermen) {
+
+            this(grid[0].length, grid.length, toCellTypes(grid), bombermen);
+
+            for (Bomb bomb : bombs) {
+                int cell = cellOf(bomb.getCell());
+                addBomb(cell, bomb.getOwner(), explosionTurn(bomb.getRoundsToExplode()), bomb.getExplosionRange());
+            }
+
+            for (Item item : items) {
+                int cell = cellOf(item.getCell());
+                set(item.getItemType() == ItemType.EXTRA_RANGE ? extraRangeItems : extraBombItems, cell);
+            }
+
+            this.hash = computeHash();
+            rebuildDanger();
+        }
+
+        /**
+         * Builder with the state last read by the repository, straight from its flat arrays
+         */
+        public HypersonicGameEngine(InputRepository repo, Bomberman... bombermen) {
+            this(repo.getWidth(), repo.getHeight(), repo.cellTypes, bombermen);
+
+            loadEntities(repo);
+
+            this.hash = computeHash();
+            rebuildDanger();
+        }
+
+        /**
+         * Builds an engine in the same state as the source one, with an empty journal
+         */
+        public HypersonicGameEngine(HypersonicGameEngine source) {
+            this(source.topology, source.bombermen);
+            copyFrom(source);
+        }
+
+        /**
+         * Sets up the board with no bombs nor items
+         *
+         * @param cellTypes the ordinal of each cell's {@link CellType}, indexed by {@code y * width + x}
+         */
+        private HypersonicGameEngine(int width, int height, byte[] cellTypes, Bomberman[] bombermen) {
+            this(GridTopology.of(width, height, blocksOf(height * width, cellTypes)), bombermen);
+
+            loadBoxes(cellTypes);
+        }
+
+        /**
+         * Allocates every buffer, leaving the board free of boxes, bombs and items
+         */
+        private HypersonicGameEngine(GridTopology topology, Bomberman[] bombermen) {
+            this.height = topology.getHeight();
+            this.width = topology.getWidth();
+            this.words = (height * width + 63) >>> 6;
+
+            this.boxes = new long[words];
+            this.extraRangeBoxes = new long[words];
+            this.extraBombBoxes = new long[words];
+            this.extraRangeItems = new long[words];
+            this.extraBombItems = new long[words];
+            this.bombCells = new long[words];
+            this.bombermenCells = new long[words];
+
+            this.blast = new long[words];
+            this.exploding = new long[words];
+            this.hitBoxes = new long[words];
+            this.hitBoxesByOwner = new long[MAX_BOMBERMEN][words];
+            this.hitItems = new long[words];
+
+            this.topology = topology;
+            this.blocks = topology.blocks;
+            this.cells = topology.cells;
+
+            this.bombOwners = new int[cells.length];
+            this.bombExplosionTurns = new int[cells.length];
+            this.bombRanges = new int[cells.length];
+            this.bombPositions = new int[cells.length];
+            this.bombNext = new int[cells.length];
+            this.bombPrevious = new int[cells.length];
+            this.bombAt = new int[cells.length];
+            this.wheel = new int[WHEEL_SIZE];
+            this.freeSlots = new int[cells.length];
+            this.explosionQueue = new int[cells.length];
+            Arrays.fill(bombAt, -1);
+            Arrays.fill(wheel, -1);
+
+            this.blastTurns = new int[cells.length];
+            this.bombDetonations = new int[cells.length];
+            this.dangerQueue = new int[cells.length];
+
+            this.reachStamps = new int[cells.length];
+            this.distances = new int[cells.length];
+            this.reachQueue = new int[cells.length];
+            this.reachedOrigin = -1;
+
+            this.bombermen = new Bomberman[bombermen.length];
+            for (int i = 0; i < bombermen.length; i++) {
+                this.bombermen[i] = new Bomberman(bombermen[i]);
+                set(bombermenCells, cellOf(bombermen[i].getCell()));
+            }
+
+            this.deadBombermen = new boolean[MAX_BOMBERMEN];
+            this.destroyedBoxesCount = new int[MAX_BOMBERMEN];
+
+            this.turn = 0;
+            this.journal = new int[256];
+            this.journalSize = 0;
+        }
+
+        private static long[] blocksOf(int size, byte[] cellTypes) {
+            long[] blocks = new long[(size + 63) >>> 6];
+            for (int cell = 0; cell < size; cell++) {
+                if (CELL_TYPES[cellTypes[cell]] == CellType.BLOCK) {
+                    set(blocks, cell);
+                }
+            }
+            return blocks;
+        }
+
+        private void loadBoxes(byte[] cellTypes) {
+            for (int cell = 0; cell < cells.length; cell++) {
+                switch (CELL_TYPES[cellTypes[cell]]) {
+                case BOX_WITH_EXTRA_RANGE:
+                    set(extraRangeBoxes, cell);
+                    set(boxes, cell);
+                    break;
+                case BOX_WITH_EXTRA_BOMB:
+                    set(extraBombBoxes, cell);
+                    set(boxes, cell);
+                    break;
+                case BOX_WITH_NO_ITEM:
+                    set(boxes, cell);
+                    break;
+                case BLOCK:
+                case FLOOR:
+                    break;
+                }
+            }
+        }
+
+        private void loadEntities(InputRepository repo) {
+            for (int i = 0; i < repo.bombCount; i++) {
+                addBomb(repo.bombPositions[i], repo.bombOwners[i], explosionTurn(repo.bombTimers[i]), repo.bombRanges[i]);
+            }
+
+            for (int cell = 0; cell < cells.length; cell++) {
+                byte item = repo.itemTypes[cell];
+                if (item != InputRepository.NO_ITEM) {
+                    set(ITEM_TYPES[item - 1] == ItemType.EXTRA_RANGE ? extraRangeItems : extraBombItems, cell);
+                }
+            }
+        }
+
+        /**
+         * Overwrites this engine's state with the one last read by the repository, reusing every buffer. The journal
+         * is emptied.
+         *
+         * @return whether the engine was reset: it is left untouched if the repository read another grid than the
+         * one this engine was built on, or other bombermen are simulated
+         */
+        public boolean resetTo(InputRepository repo, Bomberman... bombermen) {
+            if (!canResetTo(repo, bombermen)) {
+                return false;
+            }
+
+            Arrays.fill(boxes, 0L);
+            Arrays.fill(extraRangeBoxes, 0L);
+            Arrays.fill(extraBombBoxes, 0L);
+            Arrays.fill(extraRangeItems, 0L);
+            Arrays.fill(extraBombItems, 0L);
+            Arrays.fill(bombCells, 0L);
+
+            for (int slot = 0; slot < bombSlots; slot++) {
+                if (bombPositions[slot] >= 0) {
+                    bombAt[bombPositions[slot]] = -1;
+                }
+            }
+            Arrays.fill(wheel, -1);
+            freeCount = 0;
+            bombSlots = 0;
+            bombCount = 0;
+            turn = 0;
+
+            loadBoxes(repo.cellTypes);
+            loadEntities(repo);
+
+            for (int i = 0; i < bombermen.length; i++) {
+                this.bombermen[i].copyFrom(bombermen[i]);
+            }
+            updateBombermenCells();
+            Arrays.fill(deadBombermen, false);
+            Arrays.fill(destroyedBoxesCount, 0);
+
+            journalSize = 0;
+            hash = computeHash();
+            dangerStale = true;
+            reachedOrigin = -1;
+            return true;
+        }
+
+        private boolean canResetTo(InputRepository repo, Bomberman... bombermen) {
+            if (repo.getWidth() != width || repo.getHeight() != height || !sameBombermen(bombermen)) {
+                return false;
+            }
+
+            for (int cell = 0; cell < cells.length; cell++) {
+                if ((CELL_TYPES[repo.cellTypes[cell]] == CellType.BLOCK) != isSet(blocks, cell)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        boolean canCopyFrom(HypersonicGameEngine source) {
+            return source.topology == topology && sameBombermen(source.bombermen);
+        }
+
+        private boolean sameBombermen(Bomberman[] others) {
+            if (others.length != bombermen.length) {
+                return false;
+            }
+
+            for (int i = 0; i < bombermen.length; i++) {
+                if (others[i].getId() != bombermen[i].getId()) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Overwrites this engine's state with the source's, reusing every buffer. Both engines must be built on
+         * the same grid and simulate the same bombermen. The journal is emptied, so this engine cannot be rewound
+         * past the copy.
+         */
+        public void copyFrom(HypersonicGameEngine source) {
+            if (!canCopyFrom(source)) {
+                throw new IllegalArgumentException("Cannot copy an engine built on another grid or other bombermen");
+            }
+
+            System.arraycopy(source.boxes, 0, boxes, 0, words);
+            System.arraycopy(source.extraRangeBoxes, 0, extraRangeBoxes, 0, words);
+            System.arraycopy(source.extraBombBoxes, 0, extraBombBoxes, 0, words);
+            System.arraycopy(source.extraRangeItems, 0, extraRangeItems, 0, words);
+            System.arraycopy(source.extraBombItems, 0, extraBombItems, 0, words);
+            System.arraycopy(source.bombCells, 0, bombCells, 0, words);
+            System.arraycopy(source.bombermenCells, 0, bombermenCells, 0, words);
+
+            bombSlots = source.bombSlots;
+            bombCount = source.bombCount;
+            freeCount = source.freeCount;
+            System.arraycopy(source.bombOwners, 0, bombOwners, 0, bombSlots);
+            System.arraycopy(source.bombExplosionTurns, 0, bombExplosionTurns, 0, bombSlots);
+            System.arraycopy(source.bombRanges, 0, bombRanges, 0, bombSlots);
+            System.arraycopy(source.bombPositions, 0, bombPositions, 0, bombSlots);
+            System.arraycopy(source.bombNext, 0, bombNext, 0, bombSlots);
+            System.arraycopy(source.bombPrevious, 0, bombPrevious, 0, bombSlots);
+            System.arraycopy(source.freeSlots, 0, freeSlots, 0, freeCount);
+            System.arraycopy(source.wheel, 0, wheel, 0, WHEEL_SIZE);
+            System.arraycopy(source.bombAt, 0, bombAt, 0, bombAt.length);
+
+            for (int i = 0; i < bombermen.length; i++) {
+                bombermen[i].copyFrom(source.bombermen[i]);
+            }
+            System.arraycopy(source.deadBombermen, 0, deadBombermen, 0, MAX_BOMBERMEN);
+            System.arraycopy(source.destroyedBoxesCount, 0, destroyedBoxesCount, 0, MAX_BOMBERMEN);
+
+            turn = source.turn;
+            hash = source.hash;
+            journalSize = 0;
+            reachedOrigin = -1;
+
+            dangerStale = source.dangerStale;
+            dangerMark = 0;
+            if (!dangerStale) {
+                System.arraycopy(source.blastTurns, 0, blastTurns, 0, blastTurns.length);
+                System.arraycopy(source.bombDetonations, 0, bombDetonations, 0, bombSlots);
+            }
+        }
+
+        private static byte[] toCellTypes(CellType[][] grid) {
+            int width = grid[0].length;
+            byte[] cellTypes = new byte[grid.length * width];
+
+            for (int y = 0; y < grid.length; y++) {
+                for (int x = 0; x < width; x++) {
+                    cellTypes[y * width + x] = (byte) grid[y][x].ordinal();
+                }
+            }
+
+            return cellTypes;
+        }
+
+        public void perform(SimplifiedAction... actions) {
+            perform(false, actions);
+        }
+
+        /**
+         * Performs a turn for the engine's only bomberman. Unlike its varargs counterpart, it does not allocate.
+         *
+         * @return the action the bomberman actually carried out: it stays rather than move where it cannot, and
+         * drops the bomb it cannot place
+         */
+        public SimplifiedAction perform(boolean relaxed, SimplifiedAction action) {
+            if (bombermen.length != 1) {
+                throw new IllegalStateException("Expected " + bombermen.length + " actions, but found 1");
+            }
+
+            beginTurn();
+            return act(0, relaxed, action);
+        }
+
+        /**
+         * Performs a turn for the first bomberman, the i-th other one playing {@code others[i - 1]}. Like the single
+         * bomberman version, it does not allocate. Only the first bomberman is relaxed, the others do nothing once
+         * dead.
+         *
+         * @return the action the first bomberman actually carried out
+         */
+        public SimplifiedAction perform(boolean relaxed, SimplifiedAction action, SimplifiedAction[] others) {
+            if (others.length < bombermen.length - 1) {
+                throw new IllegalStateException(
+                        "Expected " + (bombermen.length - 1) + " other actions, but found " + others.length);
+            }
+
+            beginTurn();
+            SimplifiedAction carriedOut = act(0, relaxed, action);
+            for (int i = 1; i < bombermen.length; i++) {
+                act(i, false, others[i - 1]);
+            }
+            return carriedOut;
+        }
+
+        /**
+         * Performs a turn, {@code actions[i]} being played by the i-th bomberman. Callers on a hot path should reuse
+         * the same array between calls.
+         */
+        public void perform(boolean relaxed, SimplifiedAction... actions) {
+            if (actions.length != bombermen.length) {
+                throw new IllegalStateException(
+                        "Expected " + bombermen.length + " actions, but found " + actions.length);
+            }
+
+            beginTurn();
+            for (int i = 0; i < bombermen.length; i++) {
+                act(i, relaxed, actions[i]);
+            }
+        }
+
+        private void beginTurn() {
+            // undoing a turn restores the hash it started with, so undo steps leave it alone
+            record(UNDO_TURN, (int) hash, (int) (hash >>> 32));
+            hash ^= topology.turnKey(turn) ^ topology.turnKey(turn + 1);
+            turn++;
+
+            if (bombCount > 0) {
+                explodeBombs();
+            }
+        }
+
+        /**
+         * @return the action the bomberman actually carried out
+         */
+        private SimplifiedAction act(int index, boolean relaxed, SimplifiedAction action) {
+            Bomberman bomberman = bombermen[index];
+            if (deadBombermen[bomberman.getId()] && !relaxed) {
+                return SimplifiedAction.STAY;
+            }
+
+            int x = bomberman.getCell().getX();
+            int y = bomberman.getCell().getY();
+
+            boolean placed = false;
+            boolean moved = false;
+
+            switch (action) {
+            case BOMB_AND_MOVE_UP:
+                placed = placeBomb(index, bomberman);
+            case MOVE_UP:
+                moved = moveTo(index, bomberman, x, y - 1);
+                break;
+            case BOMB_AND_MOVE_DOWN:
+                placed = placeBomb(index, bomberman);
+            case MOVE_DOWN:
+                moved = moveTo(index, bomberman, x, y + 1);
+                break;
+            case BOMB_AND_MOVE_LEFT:
+                placed = placeBomb(index, bomberman);
+            case MOVE_LEFT:
+                moved = moveTo(index, bomberman, x - 1, y);
+                break;
+            case BOMB_AND_MOVE_RIGHT:
+                placed = placeBomb(index, bomberman);
+            case MOVE_RIGHT:
+                moved = moveTo(index, bomberman, x + 1, y);
+                break;
+            case BOMB_AND_STAY:
+                placed = placeBomb(index, bomberman);
+            case STAY:
+                break;
+            }
+
+            // actions are laid out as the four moves then staying, first without a bomb and then with one
+            int move = moved ? action.ordinal() % ACTIONS_PER_BOMB_CHOICE : SimplifiedAction.STAY.ordinal();
+            return ACTIONS[placed ? move + ACTIONS_PER_BOMB_CHOICE : move];
+        }
+
+        /**
+         * Resolves the bombs due this turn, chained detonations included. Bombs keep the turn they go off rather
+         * than a timer, so only the wheel bucket of the turn is visited. All blasts of a turn are resolved against
+         * the board as it was at the beginning of the turn, so a box stops every ray that reaches it, and it only
+         * turns into floor (or into its item) once all explosions are known.
+         */
+        private void explodeBombs() {
+            int queued = 0;
+            for (int slot = wheel[turn & (WHEEL_SIZE - 1)]; slot >= 0; slot = bombNext[slot]) {
+                if (bombExplosionTurns[slot] == turn) {
+                    int cell = bombPositions[slot];
+                    set(exploding, cell);
+                    explosionQueue[queued++] = cell;
+                }
+            }
+
+            if (queued == 0) {
+                return;
+            }
+
+            for (int head = 0; head < queued; head++) {
+                int cell = explosionQueue[head];
+                int slot = bombAt[cell];
+                int range = bombRanges[slot];
+                int owner = bombOwners[slot];
+
+                set(blast, cell);
+                for (int direction = 0; direction < GridTopology.DIRECTIONS; direction++) {
+                    queued = propagateBlast(queued, owner, range, cell, direction);
+                }
+            }
+
+            for (int owner = 0; owner < MAX_BOMBERMEN; owner++) {
+                long[] hitByOwner = hitBoxesByOwner[owner];
+                int destroyed = 0;
+                for (int w = 0; w < words; w++) {
+                    destroyed += Long.bitCount(hitByOwner[w]);
+                    hitByOwner[w] = 0L;
+                }
+                if (destroyed > 0) {
+                    hash ^= creditKey(owner);
+                    destroyedBoxesCount[owner] += destroyed;
+                    hash ^= creditKey(owner);
+                    record(UNDO_CREDIT, owner, destroyed);
+                }
+            }
+
+            // boxes turn into the items they were hiding, items caught by the blast are gone
+            for (int w = 0; w < words; w++) {
+                long hit = hitBoxes[w];
+                for (long bits = hit; bits != 0; bits &= bits - 1) {
+                    long bit = bits & -bits;
+                    int kind = (extraRangeBoxes[w] & bit) != 0
+                            ? KIND_EXTRA_RANGE
+                            : (extraBombBoxes[w] & bit) != 0 ? KIND_EXTRA_BOMB : KIND_NONE;
+                    int cell = (w << 6) + Long.numberOfTrailingZeros(bit);
+                    record(UNDO_BOX, cell, kind);
+
+                    hash ^= topology.boxKey(cell, kind);
+                    if (kind != KIND_NONE) {
+                        hash ^= topology.itemKey(cell, kind);
                     }
+                }
+                for (long bits = hitItems[w]; bits != 0; bits &= bits - 1) {
+                    long bit = bits & -bits;
+                    int kind = (extraRangeItems[w] & bit) != 0 ? KIND_EXTRA_RANGE : KIND_EXTRA_BOMB;
+                    int cell = (w << 6) + Long.numberOfTrailingZeros(bit);
+                    record(UNDO_ITEM, cell, kind);
 
-                    // evaluating west
-                    for (int j = x + 1; j < x + range; j++) {
-                        if (j > (width - 1) || grid[y][j] == CellType.BLOCK) {
-                            break;
-                        }
+                    hash ^= topology.itemKey(cell, kind);
+                }
 
-                        if (grid[y][j] == CellType.BOX_WITH_NO_ITEM
-                                || grid[y][j] == CellType.BOX_WITH_EXTRA_BOMB
-                                || grid[y][j] == CellType.BOX_WITH_EXTRA_RANGE) {
-                            boxesToDestroy.add(new Cell(j, y));
-                            destroyedBoxesCount[owner]++;
-                            break;
-                        }
+                extraRangeItems[w] = (extraRangeItems[w] & ~hitItems[w]) | (extraRangeBoxes[w] & hit);
+                extraBombItems[w] = (extraBombItems[w] & ~hitItems[w]) | (extraBombBoxes[w] & hit);
+                boxes[w] &= ~hit;
+                extraRangeBoxes[w] &= ~hit;
+                extraBombBoxes[w] &= ~hit;
+                bombCells[w] &= ~exploding[w];
+            }
 
-                        if (itemsGrid[y][j] != null) {
-                            itemsToDestroy.add(new Cell(j, y));
-                            break;
-                        }
+            if (intersects(blast, bombermenCells)) {
+                for (Bomberman bomberman : bombermen) {
+                    int id = bomberman.getId();
+                    if (!deadBombermen[id] && isSet(blast, cellOf(bomberman.getCell()))) {
+                        hash ^= statsKey(bomberman);
+                        deadBombermen[id] = true;
+                        hash ^= statsKey(bomberman);
+                        record(UNDO_DEATH, id);
+                    }
+                }
+            }
 
-                        // bombs are detonated in chain
-                        if (bombsGrid[y][j] != null) {
-                            bombsGrid[y][j].setRoundsToExplode(1);
-                            toEvaluate.add(bombsGrid[y][j]);
-                        }
+            for (int i = 0; i < queued; i++) {
+                int cell = explosionQueue[i];
+                int slot = bombAt[cell];
+                int owner = bombOwners[slot];
+
+                Bomberman bomberman = findBomberman(owner);
+                if (bomberman != null) {
+                    hash ^= statsKey(bomberman);
+                    bomberman.incrementBombsToPlace();
+                    hash ^= statsKey(bomberman);
+                }
+
+                record(UNDO_EXPLOSION, cell, owner, bombExplosionTurns[slot], bombRanges[slot]);
+                hash ^= bombKey(slot);
+                removeBomb(slot);
+            }
+
+            if (!dangerStale) {
+                retireDanger();
+            }
+
+            Arrays.fill(blast, 0L);
+            Arrays.fill(exploding, 0L);
+            Arrays.fill(hitBoxes, 0L);
+            Arrays.fill(hitItems, 0L);
+        }
+
+        /**
+         * Walks a single blast ray, which covers {@code range - 1} cells past the bomb. Blocks and the board edges
+         * are already accounted for by the topology; rays also stop at boxes and at items, and detonate the bombs
+         * they cross.
+         *
+         * @return the new length of the explosion queue
+         */
+        private int propagateBlast(int queued, int owner, int range, int origin, int direction) {
+            int[] rays = topology.rays;
+            int from = topology.rayStart(origin, direction);
+            int to = Math.min(topology.rayEnd(origin, direction), from + range - 1);
+
+            for (int r = from; r < to; r++) {
+                int cell = rays[r];
+                int w = cell >>> 6;
+                long bit = 1L << cell;
+
+                blast[w] |= bit;
+
+                if ((boxes[w] & bit) != 0) {
+                    hitBoxes[w] |= bit;
+                    hitBoxesByOwner[owner][w] |= bit;
+                    break;
+                }
+
+                if (((extraRangeItems[w] | extraBombItems[w]) & bit) != 0) {
+                    hitItems[w] |= bit;
+                    break;
+                }
+
+                // bombs are detonated in chain
+                if ((bombCells[w] & bit) != 0 && (exploding[w] & bit) == 0) {
+                    exploding[w] |= bit;
+                    explosionQueue[queued++] = cell;
+                }
+            }
+
+            return queued;
+        }
+
+        /**
+         * @return the simulated bomberman with the given id, or {@code null} if it is not part of the simulation
+         */
+        private Bomberman findBomberman(int id) {
+            for (Bomberman bomberman : bombermen) {
+                if (bomberman.getId() == id) {
+                    return bomberman;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return whether the bomb was placed
+         */
+        private boolean placeBomb(int index, Bomberman bomberman) {
+            int id = bomberman.getId();
+            int x = bomberman.getCell().getX();
+            int y = bomberman.getCell().getY();
+            int cell = y * width + x;
+
+            if (bomberman.getBombsToPlace() > 0 && !isSet(bombCells, cell)) {
+                hash ^= statsKey(bomberman);
+                int slot = addBomb(cell, id, turn + BOMB_TIMER, bomberman.getExplosionRange());
+                bomberman.decrementBombsToPlace();
+                hash ^= statsKey(bomberman) ^ bombKey(slot);
+                record(UNDO_PLACEMENT, index, cell);
+
+                if (!dangerStale) {
+                    addDanger(slot);
+                }
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * A bomb about to go off (or past due, as a timer of 0 may be read) explodes on the next turn
+         */
+        private int explosionTurn(int roundsToExplode) {
+            return turn + Math.max(1, roundsToExplode);
+        }
+
+        /**
+         * @return the slot holding the new bomb
+         */
+        private int addBomb(int cell, int owner, int explosionTurn, int range) {
+            int slot = freeCount > 0 ? freeSlots[--freeCount] : bombSlots++;
+
+            bombOwners[slot] = owner;
+            bombExplosionTurns[slot] = explosionTurn;
+            bombRanges[slot] = range;
+            bombPositions[slot] = cell;
+            bombDetonations[slot] = explosionTurn;
+            bombAt[cell] = slot;
+            set(bombCells, cell);
+
+            int bucket = explosionTurn & (WHEEL_SIZE - 1);
+            int head = wheel[bucket];
+            bombNext[slot] = head;
+            bombPrevious[slot] = -1;
+            if (head >= 0) {
+                bombPrevious[head] = slot;
+            }
+            wheel[bucket] = slot;
+
+            bombCount++;
+            return slot;
+        }
+
+        /**
+         * Unlinks the bomb from its wheel bucket and frees its slot
+         */
+        private void removeBomb(int slot) {
+            int cell = bombPositions[slot];
+            int next = bombNext[slot];
+            int previous = bombPrevious[slot];
+
+            if (previous >= 0) {
+                bombNext[previous] = next;
+            } else {
+                wheel[bombExplosionTurns[slot] & (WHEEL_SIZE - 1)] = next;
+            }
+            if (next >= 0) {
+                bombPrevious[next] = previous;
+            }
+
+            bombAt[cell] = -1;
+            clear(bombCells, cell);
+            bombPositions[slot] = -1;
+            freeSlots[freeCount++] = slot;
+            bombCount--;
+        }
+
+        /**
+         * @return whether the bomberman moved
+         */
+        private boolean moveTo(int index, Bomberman bomberman, int nextX, int nextY) {
+            if (canMoveTo(nextX, nextY)) {
+                int cell = nextY * width + nextX;
+
+                int id = bomberman.getId();
+                record(UNDO_MOVE, index, cellOf(bomberman.getCell()));
+                hash ^= topology.positionKey(id, cellOf(bomberman.getCell())) ^ topology.positionKey(id, cell);
+                bomberman.setCell(cells[cell]);
+                updateBombermenCells();
+
+                if (isSet(extraRangeItems, cell)) {
+                    hash ^= statsKey(bomberman);
+                    bomberman.incrementExplosionRange();
+                    clear(extraRangeItems, cell);
+                    record(UNDO_PICKUP, index, cell, KIND_EXTRA_RANGE);
+                    hash ^= topology.itemKey(cell, KIND_EXTRA_RANGE) ^ statsKey(bomberman);
+                    // the item may have been stopping a blast ray
+                    if (!dangerStale) {
+                        respreadDanger();
+                    }
+                } else if (isSet(extraBombItems, cell)) {
+                    hash ^= statsKey(bomberman);
+                    bomberman.incrementBombsToPlace();
+                    bomberman.incrementTotalAvailableBombs();
+                    clear(extraBombItems, cell);
+                    record(UNDO_PICKUP, index, cell, KIND_EXTRA_BOMB);
+                    hash ^= topology.itemKey(cell, KIND_EXTRA_BOMB) ^ statsKey(bomberman);
+                    if (!dangerStale) {
+                        respreadDanger();
                     }
+                }
+                return true;
+            }
+            return false;
+        }
 
-                    // evaluating north
-                    for (int i = y - 1; i > y - range; i--) {
-                        if (i < 0 || grid[i][x] == CellType.BLOCK) {
-                            break;
-                        }
+        /**
+         * Returns how many turns are left before a blast reaches the cell, taking chained detonations into account,
+         * or {@link #NO_BLAST} if none of the bombs on the board reaches it. Rays are traced on the board as it is
+         * now: boxes and items stop them until an explosion actually clears the way.
+         */
+        public int getTurnsBeforeBlast(int x, int y) {
+            if (dangerStale) {
+                rebuildDanger();
+            }
 
-                        if (grid[i][x] == CellType.BOX_WITH_NO_ITEM
-                                || grid[i][x] == CellType.BOX_WITH_EXTRA_BOMB
-                                || grid[i][x] == CellType.BOX_WITH_EXTRA_RANGE) {
-                            boxesToDestroy.add(new Cell(x, i));
-                            destroyedBoxesCount[owner]++;
-                            break;
-                        }
+            int blastTurn = blastTurns[y * width + x];
+            return blastTurn == NO_BLAST ? NO_BLAST : blastTurn - turn;
+        }
 
-                        if (itemsGrid[i][x] != null) {
-                            itemsToDestroy.add(new Cell(x, i));
-                            break;
-                        }
+        /**
+         * Spreads the danger of a newly placed bomb. It goes off at its own time, or earlier if it already sits in
+         * another blast, and every bomb it reaches is brought forward to that same time.
+         */
+        private void addDanger(int slot) {
+            int origin = bombPositions[slot];
+            if (blastTurns[origin] < bombDetonations[slot]) {
+                setDetonation(slot, blastTurns[origin]);
+            }
 
-                        // bombs are detonated in chain
-                        if (bombsGrid[i][x] != null) {
-                            bombsGrid[i][x].setRoundsToExplode(1);
-                            toEvaluate.add(bombsGrid[i][x]);
-                        }
+            spreadChain(slot);
+        }
+
+        /**
+         * Clears the cells blasted this turn, then spreads the bombs left again: they cover those cells anew, and
+         * reach past the boxes and items the blasts cleared. Bombs left were not in any of the blasts, so they still
+         * go off when the map says they do, or earlier once their rays go further.
+         */
+        private void retireDanger() {
+            for (int w = 0; w < words; w++) {
+                for (long bits = blast[w]; bits != 0; bits &= bits - 1) {
+                    setBlastTurn((w << 6) + Long.numberOfTrailingZeros(bits), NO_BLAST);
+                }
+            }
+
+            respreadDanger();
+        }
+
+        /**
+         * Spreads every bomb on the board again, once rays may go further than they did. Values only ever come
+         * down, so bombs are spread with the times they already have, in any order.
+         */
+        private void respreadDanger() {
+            for (int slot = 0; slot < bombSlots; slot++) {
+                if (bombPositions[slot] >= 0) {
+                    spreadChain(slot);
+                }
+            }
+        }
+
+        /**
+         * Spreads the bomb, then every bomb it brings forward. Since a single value is propagated, every bomb is
+         * queued at most once.
+         */
+        private void spreadChain(int slot) {
+            int queued = 0;
+            dangerQueue[queued++] = slot;
+
+            for (int head = 0; head < queued; head++) {
+                queued = spreadDanger(dangerQueue[head], queued);
+            }
+        }
+
+        /**
+         * Recomputes the danger map from scratch. Bombs are resolved by increasing explosion turn, a wheel bucket at
+         * a time, and a bomb a chain brought forward was spread along with that chain. Explosions, pickups and
+         * placements update the map in place, so it is only rebuilt once the engine is rewound past the last rebuild,
+         * reset, or copied from an engine whose map was stale.
+         */
+        private void rebuildDanger() {
+            // nothing to journal, the map is rebuilt whole from this point of the journal
+            dangerStale = true;
+            Arrays.fill(blastTurns, NO_BLAST);
+
+            for (int slot = 0; slot < bombSlots; slot++) {
+                bombDetonations[slot] = bombExplosionTurns[slot];
+            }
+
+            // every bomb goes off within the next WHEEL_SIZE turns, so each bucket holds a single explosion turn
+            for (int next = turn + 1; next <= turn + WHEEL_SIZE; next++) {
+                for (int slot = wheel[next & (WHEEL_SIZE - 1)]; slot >= 0; slot = bombNext[slot]) {
+                    if (bombDetonations[slot] == bombExplosionTurns[slot]) {
+                        spreadChain(slot);
+                    }
+                }
+            }
+
+            dangerStale = false;
+            dangerMark = journalSize;
+            dangerRebuilds++;
+        }
+
+        /**
+         * @return how many times the danger map was rebuilt from scratch
+         */
+        int getDangerRebuilds() {
+            return dangerRebuilds;
+        }
+
+        /**
+         * Marks the bomb's cells with its detonation time and brings forward the bombs it reaches, queuing them
+         *
+         * @return the new length of the danger queue
+         */
+        private int spreadDanger(int slot, int queued) {
+            int origin = bombPositions[slot];
+            int detonation = bombDetonations[slot];
+            int range = bombRanges[slot];
+            int[] rays = topology.rays;
+
+            if (detonation < blastTurns[origin]) {
+                setBlastTurn(origin, detonation);
+            }
+
+            for (int direction = 0; direction < GridTopology.DIRECTIONS; direction++) {
+                int from = topology.rayStart(origin, direction);
+                int to = Math.min(topology.rayEnd(origin, direction), from + range - 1);
+
+                for (int r = from; r < to; r++) {
+                    int cell = rays[r];
+
+                    if (detonation < blastTurns[cell]) {
+                        setBlastTurn(cell, detonation);
+                    }
+
+                    int other = bombAt[cell];
+                    if (other >= 0 && bombDetonations[other] > detonation) {
+                        setDetonation(other, detonation);
+                        dangerQueue[queued++] = other;
                     }
 
-                    // evaluating down Y axis
-                    for (int i = y + 1; i < y + range; i++) {
-                        if (i > (height - 1) || grid[i][x] == CellType.BLOCK) {
-                            break;
-                        }
-                        if (grid[i][x] == CellType.BOX_WITH_NO_ITEM
-                                || grid[i][x] == CellType.BOX_WITH_EXTRA_BOMB
-                                || grid[i][x] == CellType.BOX_WITH_EXTRA_RANGE) {
-                            boxesToDestroy.add(new Cell(x, i));
-                            destroyedBoxesCount[owner]++;
-                            break;
-                        }
+                    int w = cell >>> 6;
+                    long bit = 1L << cell;
+                    if (((boxes[w] | extraRangeItems[w] | extraBombItems[w]) & bit) != 0) {
+                        break;
+                    }
+                }
+            }
+
+            return queued;
+        }
+
+        /**
+         * Changes of a fresh map are journaled, a stale or rebuilding one is not kept anyway
+         */
+        private void setBlastTurn(int cell, int blastTurn) {
+            if (!dangerStale) {
+                record(UNDO_BLAST_TURN, cell, blastTurns[cell]);
+            }
+            blastTurns[cell] = blastTurn;
+        }
+
+        private void setDetonation(int slot, int detonation) {
+            if (!dangerStale) {
+                record(UNDO_DETONATION, slot, bombDetonations[slot]);
+            }
+            bombDetonations[slot] = detonation;
+        }
+
+        /**
+         * Returns the Zobrist hash of the current state: boxes and the items they hide, items, bombs with their
+         * owners, explosion turns and ranges, every bomberman's position, range, bomb counts, death and destroyed
+         * boxes, and the turn modulo 16. The same state reached through different moves in as many turns hashes the
+         * same.
+         */
+        public long getHash() {
+            return hash;
+        }
+
+        /**
+         * Returns a hash of the state as the repository reads it: the same as {@link #getHash()}, but with bombs keyed
+         * by the rounds they have left rather than the turn they go off, and without the turn nor the boxes destroyed
+         * so far. A state reached by performing turns then hashes the same as that state read from the next input.
+         */
+        public long getStateHash() {
+            long hash = boardHash() ^ bombermenHash();
+
+            for (int slot = 0; slot < bombSlots; slot++) {
+                if (bombPositions[slot] >= 0) {
+                    hash ^= topology.bombKey(
+                            bombPositions[slot],
+                            bombOwners[slot],
+                            bombExplosionTurns[slot] - turn,
+                            bombRanges[slot]);
+                }
+            }
+
+            return hash;
+        }
+
+        private long computeHash() {
+            long hash = boardHash() ^ bombermenHash();
+
+            for (int slot = 0; slot < bombSlots; slot++) {
+                if (bombPositions[slot] >= 0) {
+                    hash ^= bombKey(slot);
+                }
+            }
+
+            for (int owner = 0; owner < MAX_BOMBERMEN; owner++) {
+                hash ^= creditKey(owner);
+            }
+
+            return hash ^ topology.turnKey(turn);
+        }
+
+        /**
+         * Boxes, with the items they hide, and items
+         */
+        private long boardHash() {
+            long hash = 0L;
+
+            for (int w = 0; w < words; w++) {
+                for (long bits = boxes[w]; bits != 0; bits &= bits - 1) {
+                    long bit = bits & -bits;
+                    int kind = (extraRangeBoxes[w] & bit) != 0
+                            ? KIND_EXTRA_RANGE
+                            : (extraBombBoxes[w] & bit) != 0 ? KIND_EXTRA_BOMB : KIND_NONE;
+                    hash ^= topology.boxKey((w << 6) + Long.numberOfTrailingZeros(bit), kind);
+                }
+                for (long bits = extraRangeItems[w]; bits != 0; bits &= bits - 1) {
+                    hash ^= topology.itemKey((w << 6) + Long.numberOfTrailingZeros(bits), KIND_EXTRA_RANGE);
+                }
+                for (long bits = extraBombItems[w]; bits != 0; bits &= bits - 1) {
+                    hash ^= topology.itemKey((w << 6) + Long.numberOfTrailingZeros(bits), KIND_EXTRA_BOMB);
+                }
+            }
+
+            return hash;
+        }
+
+        private long bombermenHash() {
+            long hash = 0L;
+
+            for (Bomberman bomberman : bombermen) {
+                hash ^= topology.positionKey(bomberman.getId(), cellOf(bomberman.getCell())) ^ statsKey(bomberman);
+            }
+
+            return hash;
+        }
+
+        private long bombKey(int slot) {
+            return topology.bombKey(bombPositions[slot], bombOwners[slot], bombExplosionTurns[slot], bombRanges[slot]);
+        }
+
+        /**
+         * Counters are unbounded, so their keys are mixed from their values rather than drawn from a table. The total
+         * of bombs is left out: it follows from the bombs to place and those on the board, and the repository counts
+         * it another way.
+         */
+        private long statsKey(Bomberman bomberman) {
+            int id = bomberman.getId();
+            return mix(((long) id << 56)
+                    | (deadBombermen[id] ? 1L << 48 : 0L)
+                    | ((long) (bomberman.getExplosionRange() & 0xFFFF) << 32)
+                    | ((long) (bomberman.getBombsToPlace() & 0xFFFF) << 16));
+        }
+
+        private long creditKey(int owner) {
+            return mix((1L << 62) | ((long) owner << 56) | destroyedBoxesCount[owner]);
+        }
+
+        /**
+         * SplitMix64 finalizer
+         */
+        private static long mix(long value) {
+            long z = value + 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+
+        /**
+         * Returns a mark of the current state, to be handed later to {@link #rewind(int)}
+         */
+        public int mark() {
+            return journalSize;
+        }
+
+        /**
+         * Restores the exact state the engine had when {@code mark} was taken, undoing every turn performed since
+         */
+        public void rewind(int mark) {
+            if (mark < 0 || mark > journalSize) {
+                throw new IllegalArgumentException("Unknown mark=" + mark + ", journal size is " + journalSize);
+            }
+
+            while (journalSize > mark) {
+                undoLastEntry();
+            }
+
+            if (mark < dangerMark) {
+                dangerStale = true;
+            }
+        }
+
+        /**
+         * Undoes the last performed turn
+         */
+        public void unperform() {
+            if (journalSize == 0) {
+                throw new IllegalStateException("There is no performed turn to undo");
+            }
+
+            while (undoLastEntry() != UNDO_TURN) {
+                // keep undoing until the beginning of the turn
+            }
+
+            if (journalSize < dangerMark) {
+                dangerStale = true;
+            }
+        }
+
+        /**
+         * Pops a single entry from the journal and reverts it. Entries are laid out as their arguments followed by
+         * their opcode, so they are read backwards.
+         *
+         * @return the undone opcode
+         */
+        private int undoLastEntry() {
+            int[] journal = this.journal;
+            int op = journal[--journalSize];
+
+            switch (op) {
+            case UNDO_TURN: {
+                int high = journal[--journalSize];
+                int low = journal[--journalSize];
+
+                hash = ((long) high << 32) | (low & 0xFFFFFFFFL);
+                turn--;
+                break;
+            }
+
+            case UNDO_EXPLOSION: {
+                int range = journal[--journalSize];
+                int explosionTurn = journal[--journalSize];
+                int owner = journal[--journalSize];
+                int cell = journal[--journalSize];
+
+                // the bomb went off on this very turn, chained or not
+                bombDetonations[addBomb(cell, owner, explosionTurn, range)] = turn;
+
+                Bomberman bomberman = findBomberman(owner);
+                if (bomberman != null) {
+                    bomberman.decrementBombsToPlace();
+                }
+                break;
+            }
+
+            case UNDO_BOX: {
+                int kind = journal[--journalSize];
+                int cell = journal[--journalSize];
+
+                set(boxes, cell);
+                if (kind == KIND_EXTRA_RANGE) {
+                    set(extraRangeBoxes, cell);
+                    clear(extraRangeItems, cell);
+                } else if (kind == KIND_EXTRA_BOMB) {
+                    set(extraBombBoxes, cell);
+                    clear(extraBombItems, cell);
+                }
+                break;
+            }
+
+            case UNDO_ITEM: {
+                int kind = journal[--journalSize];
+                int cell = journal[--journalSize];
+
+                set(kind == KIND_EXTRA_RANGE ? extraRangeItems : extraBombItems, cell);
+                break;
+            }
+
+            case UNDO_CREDIT: {
+                int destroyed = journal[--journalSize];
+                int owner = journal[--journalSize];
+
+                destroyedBoxesCount[owner] -= destroyed;
+                break;
+            }
+
+            case UNDO_DEATH:
+                deadBombermen[journal[--journalSize]] = false;
+                break;
+
+            case UNDO_PLACEMENT: {
+                int cell = journal[--journalSize];
+                int index = journal[--journalSize];
 
-                        if (itemsGrid[i][x] != null) {
-                            itemsToDestroy.add(new Cell(x, i));
-                            break;
-                        }
+                removeBomb(bombAt[cell]);
+                bombermen[index].incrementBombsToPlace();
+                break;
+            }
 
-                        // bombs are detonated in chain
-                        if (bombsGrid[i][x] != null) {
-                            bombsGrid[i][x].setRoundsToExplode(1);
-                            toEvaluate.add(bombsGrid[i][x]);
-                        }
-                    }
+            case UNDO_MOVE: {
+                int cell = journal[--journalSize];
+                int index = journal[--journalSize];
 
-                    bombs.remove(bomb);
-                    bombsGrid[y][x] = null;
-                }
+                bombermen[index].setCell(cells[cell]);
+                updateBombermenCells();
+                break;
+            }
+
+            case UNDO_PICKUP: {
+                int kind = journal[--journalSize];
+                int cell = journal[--journalSize];
+                Bomberman bomberman = bombermen[journal[--journalSize]];
 
-                for (Cell item : itemsToDestroy) {
-                    int x = item.getX();
-                    int y = item.getY();
-                    items.remove(itemsGrid[y][x]);
-                    itemsGrid[y][x] = null;
+                if (kind == KIND_EXTRA_RANGE) {
+                    bomberman.decrementExplosionRange();
+                    set(extraRangeItems, cell);
+                } else {
+                    bomberman.decrementBombsToPlace();
+                    bomberman.decrementTotalAvailableBombs();
+                    set(extraBombItems, cell);
                 }
+                break;
+            }
 
-                for (Cell box : boxesToDestroy) {
-                    int x = box.getX();
-                    int y = box.getY();
+            case UNDO_BLAST_TURN: {
+                int blastTurn = journal[--journalSize];
+                blastTurns[journal[--journalSize]] = blastTurn;
+                break;
+            }
 
-                    if (grid[y][x] == CellType.BOX_WITH_EXTRA_BOMB) {
-                        Item item = new Item(ItemType.EXTRA_BOMB, x, y);
-                        items.add(item);
-                        itemsGrid[y][x] = item;
-                    } else if (grid[y][x] == CellType.BOX_WITH_EXTRA_RANGE) {
-                        Item item = new Item(ItemType.EXTRA_RANGE, x, y);
-                        items.add(item);
-                        itemsGrid[y][x] = item;
-                    }
+            case UNDO_DETONATION: {
+                int detonation = journal[--journalSize];
+                bombDetonations[journal[--journalSize]] = detonation;
+                break;
+            }
 
-                    grid[y][x] = CellType.FLOOR;
-                }
+            default:
+                throw new IllegalStateException("Corrupted journal, unknown opcode=" + op);
             }
 
-            for (int i = 0; i < bombermen.length; i++) {
-                Bomberman bomberman = bombermen[i];
-                int id = bomberman.getId();
-                if (!deadBombermen[id] || relaxed) {
+            return op;
+        }
 
-                    int x = bomberman.getCell().getX();
-                    int y = bomberman.getCell().getY();
+        private void record(int op) {
+            ensureJournalCapacity(1);
+            journal[journalSize++] = op;
+        }
 
-                    SimplifiedAction action = actions[i];
+        private void record(int op, int a) {
+            ensureJournalCapacity(2);
+            journal[journalSize++] = a;
+            journal[journalSize++] = op;
+        }
 
-                    switch (action) {
-                    case BOMB_AND_MOVE_UP:
-                        placeBomb(bomberman);
-                    case MOVE_UP:
-                        moveTo(bomberman, x, y - 1);
-                        break;
-                    case BOMB_AND_MOVE_DOWN:
-                        placeBomb(bomberman);
-                    case MOVE_DOWN:
-                        moveTo(bomberman, x, y + 1);
-                        break;
-                    case BOMB_AND_MOVE_LEFT:
-                        placeBomb(bomberman);
-                    case MOVE_LEFT:
-                        moveTo(bomberman, x - 1, y);
-                        break;
-                    case BOMB_AND_MOVE_RIGHT:
-                        placeBomb(bomberman);
-                    case MOVE_RIGHT:
-                        moveTo(bomberman, x + 1, y);
-                        break;
-                    case BOMB_AND_STAY:
-                        placeBomb(bomberman);
-                    case STAY:
-                        break;
-                    }
-                }
-            }
+        private void record(int op, int a, int b) {
+            ensureJournalCapacity(3);
+            journal[journalSize++] = a;
+            journal[journalSize++] = b;
+            journal[journalSize++] = op;
         }
 
-        private void placeBomb(Bomberman bomberman) {
-            int id = bomberman.getId();
-            int x = bomberman.getCell().getX();
-            int y = bomberman.getCell().getY();
+        private void record(int op, int a, int b, int c) {
+            ensureJournalCapacity(4);
+            journal[journalSize++] = a;
+            journal[journalSize++] = b;
+            journal[journalSize++] = c;
+            journal[journalSize++] = op;
+        }
 
-            if (bomberman.getBombsToPlace() > 0) {
-                Bomb bomb = new Bomb(id, x, y, 8, bomberman.getExplosionRange());
-                bombs.add(bomb);
-                bombsGrid[y][x] = bomb;
-                bomberman.decrementBombsToPlace();
+        private void record(int op, int a, int b, int c, int d) {
+            ensureJournalCapacity(5);
+            journal[journalSize++] = a;
+            journal[journalSize++] = b;
+            journal[journalSize++] = c;
+            journal[journalSize++] = d;
+            journal[journalSize++] = op;
+        }
+
+        private void ensureJournalCapacity(int entries) {
+            if (journalSize + entries > journal.length) {
+                journal = Arrays.copyOf(journal, Math.max(journal.length * 2, journalSize + entries));
             }
         }
 
-        private void moveTo(Bomberman bomberman, int nextX, int nextY) {
-            if (canMoveTo(nextX, nextY)) {
-                bomberman.setCell(new Cell(nextX, nextY));
-                Item item = itemsGrid[nextY][nextX];
-                if (item != null) {
-                    switch (item.getItemType()) {
-                    case EXTRA_RANGE:
-                        bomberman.incrementExplosionRange();
-                        break;
-                    case EXTRA_BOMB:
-                        bomberman.incrementBombsToPlace();
-                        bomberman.incrementTotalAvailableBombs();
-                        break;
-                    }
-                    items.remove(item);
-                    itemsGrid[nextY][nextX] = null;
-                }
+        /**
+         * Bombermen may share a cell, so the board is rebuilt from their positions rather than toggled
+         */
+        private void updateBombermenCells() {
+            Arrays.fill(bombermenCells, 0L);
+            for (Bomberman bomberman : bombermen) {
+                set(bombermenCells, cellOf(bomberman.getCell()));
             }
         }
 
@@ -763,25 +4159,72 @@ public final class Player {
             return degreesOfFreedom;
         }
 
-        private boolean canMoveTo(int nextX, int nextY) {
-            if (nextX >= 0 && nextX < width && nextY >= 0 && nextY < height) {
-                if (grid[nextY][nextX] == CellType.FLOOR && bombsGrid[nextY][nextX] == null) {
-                    return true;
-                }
-            }
+        public boolean canMoveTo(int nextX, int nextY) {
+            return nextX >= 0 && nextX < width && nextY >= 0 && nextY < height && isFree(nextY * width + nextX);
+        }
 
-            return false;
+        private boolean isFree(int cell) {
+            int w = cell >>> 6;
+            return ((blocks[w] | boxes[w] | bombCells[w]) & (1L << cell)) == 0;
         }
 
+        /**
+         * Builds a grid view of the current board
+         */
         public CellType[][] getGrid() {
+            CellType[][] grid = new CellType[height][width];
+
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int cell = y * width + x;
+                    if (isSet(blocks, cell)) {
+                        grid[y][x] = CellType.BLOCK;
+                    } else if (isSet(extraRangeBoxes, cell)) {
+                        grid[y][x] = CellType.BOX_WITH_EXTRA_RANGE;
+                    } else if (isSet(extraBombBoxes, cell)) {
+                        grid[y][x] = CellType.BOX_WITH_EXTRA_BOMB;
+                    } else if (isSet(boxes, cell)) {
+                        grid[y][x] = CellType.BOX_WITH_NO_ITEM;
+                    } else {
+                        grid[y][x] = CellType.FLOOR;
+                    }
+                }
+            }
+
             return grid;
         }
 
+        /**
+         * Builds a list view of the items currently on the board
+         */
         public List<Item> getItems() {
+            List<Item> items = new ArrayList<>();
+
+            for (int cell = 0; cell < height * width; cell++) {
+                if (isSet(extraRangeItems, cell)) {
+                    items.add(new Item(ItemType.EXTRA_RANGE, cell % width, cell / width));
+                } else if (isSet(extraBombItems, cell)) {
+                    items.add(new Item(ItemType.EXTRA_BOMB, cell % width, cell / width));
+                }
+            }
+
             return items;
         }
 
+        /**
+         * Builds a list view of the bombs currently on the board
+         */
         public List<Bomb> getBombs() {
+            List<Bomb> bombs = new ArrayList<>(bombCount);
+
+            for (int slot = 0; slot < bombSlots; slot++) {
+                int cell = bombPositions[slot];
+                if (cell >= 0) {
+                    int roundsToExplode = bombExplosionTurns[slot] - turn;
+                    bombs.add(new Bomb(bombOwners[slot], cell % width, cell / width, roundsToExplode, bombRanges[slot]));
+                }
+            }
+
             return bombs;
         }
 
@@ -797,77 +4240,392 @@ public final class Player {
             return destroyedBoxesCount[id];
         }
 
+        /**
+         * Returns the number of boxes on the grid, with or without an item
+         */
+        public int getRemainingBoxes() {
+            int remaining = 0;
+            for (long word : boxes) {
+                remaining += Long.bitCount(word);
+            }
+            return remaining;
+        }
+
+        public GridTopology getTopology() {
+            return topology;
+        }
+
+        /**
+         * Returns the number of performed turns
+         */
+        public int getTurn() {
+            return turn;
+        }
+
+        /**
+         * Returns how many places the bomberman can walk to, its own included. The places stay available through
+         * {@link #getReachedCell(int)} and {@link #getDistance(int, int)} until the next flood fill.
+         */
         public int accessiblePlacesFor(int id) {
             for (Bomberman bomberman : bombermen) {
                 if (bomberman.getId() == id) {
-                    int x = bomberman.getCell().getX();
-                    int y = bomberman.getCell().getY();
-
-                    return runFloodFillAvailablePlacesCalculator(y, x);
+                    return floodFill(cellOf(bomberman.getCell()));
                 }
             }
 
             throw new IllegalStateException("Unknown bomberman with id=" + id);
         }
 
-        private int runFloodFillAvailablePlacesCalculator(int i, int j) {
-            return runFloodFillAvailablePlacesCalculator(new boolean[height][width], i, j);
+        /**
+         * Returns how many places can be walked to from the given one, itself included, through cells free of
+         * blocks, boxes and bombs. The places stay available through {@link #getReachedCell(int)} and
+         * {@link #getDistance(int, int)} until the next flood fill.
+         */
+        public int floodFill(int x, int y) {
+            return floodFill(y * width + x);
+        }
+
+        /**
+         * @return the index-th place reached by the last flood fill, as {@code y * width + x}, nearest places first
+         */
+        public int getReachedCell(int index) {
+            if (index < 0 || index >= reachedCount) {
+                throw new IndexOutOfBoundsException("index=" + index + ", reached places=" + reachedCount);
+            }
+            return reachQueue[index];
+        }
+
+        /**
+         * @return the number of moves needed to reach the cell in the last flood fill, or {@link #UNREACHABLE}
+         */
+        public int getDistance(int x, int y) {
+            int cell = y * width + x;
+            return reachStamps[cell] == reachGeneration ? distances[cell] : UNREACHABLE;
+        }
+
+        /**
+         * Breadth-first, so places are queued by increasing distance. Stamping cells with a new generation on every
+         * fill spares clearing the visited cells. Asked again from the same place of the same state, the last fill is
+         * returned as it is.
+         */
+        private int floodFill(int origin) {
+            if (origin == reachedOrigin && hash == reachedHash) {
+                return reachedCount;
+            }
+
+            if (++reachGeneration == Integer.MAX_VALUE) {
+                Arrays.fill(reachStamps, 0);
+                reachGeneration = 1;
+            }
+
+            int generation = reachGeneration;
+            int queued = 0;
+
+            reachStamps[origin] = generation;
+            distances[origin] = 0;
+            reachQueue[queued++] = origin;
+
+            for (int head = 0; head < queued; head++) {
+                int cell = reachQueue[head];
+                int distance = distances[cell] + 1;
+
+                for (int direction = 0; direction < GridTopology.DIRECTIONS; direction++) {
+                    int next = topology.neighbour(cell, direction);
+                    if (next >= 0 && reachStamps[next] != generation && isFree(next)) {
+                        reachStamps[next] = generation;
+                        distances[next] = distance;
+                        reachQueue[queued++] = next;
+                    }
+                }
+            }
+
+            reachedCount = queued;
+            reachedOrigin = origin;
+            reachedHash = hash;
+            return queued;
+        }
+
+        private int cellOf(Cell cell) {
+            return cell.getY() * width + cell.getX();
+        }
+
+        private static boolean isSet(long[] board, int cell) {
+            return (board[cell >>> 6] & (1L << cell)) != 0;
+        }
+
+        private static void set(long[] board, int cell) {
+            board[cell >>> 6] |= 1L << cell;
+        }
+
+        private static void clear(long[] board, int cell) {
+            board[cell >>> 6] &= ~(1L << cell);
+        }
+
+        private static boolean intersects(long[] a, long[] b) {
+            for (int w = 0; w < a.length; w++) {
+                if ((a[w] & b[w]) != 0) {
+                    return true;
+                }
+            }
+            return false;
         }
+    }
+
+    /**
+     * Everything about a grid that only depends on its blocks, which never change during a match. It is computed
+     * once per block layout and shared by every engine built on it.<br>
+     * Blast rays are listed per cell and direction (left, right, up, down): the cells a blast can reach from there,
+     * nearest first, before hitting a block or the board edge. Neighbours are listed the same way, {@code -1} standing
+     * for a block or the board edge.<br>
+     * It also holds the Zobrist keys of the per-cell features of a game state: boxes, items, bombs and bombermen
+     * positions. Keys are drawn from a fixed seed, so equal states hash alike across engines and runs.
+     */
+    public static final class GridTopology {
 
-        private int runFloodFillAvailablePlacesCalculator(boolean[][] mark, int i, int j) {
-            int accessiblePlaces = 1;
-            mark[i][j] = true;
+        static final int DIRECTIONS = 4;
 
-            if (i - 1 >= 0 &&
-                    !mark[i - 1][j] &&
-                    grid[i - 1][j] == CellType.FLOOR &&
-                    bombsGrid[i - 1][j] == null) {
+        private static final long ZOBRIST_SEED = 0x5DEECE66DL;
+        private static final int BOX_KINDS = 3;
+        private static final int TURN_KEYS = 16;
+
+        // a game is played on a single layout, the least recently used ones are dropped past that many
+        static final int CACHED_TOPOLOGIES = 8;
+        private static final Map<Layout, GridTopology> TOPOLOGIES =
+                new LinkedHashMap<Layout, GridTopology>(CACHED_TOPOLOGIES, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Layout, GridTopology> eldest) {
+                        return size() > CACHED_TOPOLOGIES;
+                    }
+                };
 
-                accessiblePlaces += runFloodFillAvailablePlacesCalculator(mark, i - 1, j);
+        private final int width;
+        private final int height;
+        private final long[] blocks;
+        private final Cell[] cells;
+
+        private final int[] rays;
+        private final int[] rayStarts;
+        private final int[] neighbours;
+
+        // ranges past the longest possible ray all cover the same cells
+        private final int maxRange;
+        private final long[] boxKeys;
+        private final long[] itemKeys;
+        private final long[] bombOwnerKeys;
+        private final long[] bombTurnKeys;
+        private final long[] bombRangeKeys;
+        private final long[] positionKeys;
+        private final long[] turnKeys;
+
+        private GridTopology(Layout layout) {
+            this.width = layout.width;
+            this.height = layout.height;
+            this.blocks = layout.blocks;
+
+            int size = width * height;
+
+            this.cells = new Cell[size];
+            for (int cell = 0; cell < size; cell++) {
+                cells[cell] = new Cell(cell % width, cell / width);
             }
 
-            if (i + 1 < height &&
-                    !mark[i + 1][j] &&
-                    grid[i + 1][j] == CellType.FLOOR &&
-                    bombsGrid[i + 1][j] == null) {
+            int[] dx = { -1, 1, 0, 0 };
+            int[] dy = { 0, 0, -1, 1 };
+
+            int[] rays = new int[size * DIRECTIONS * Math.max(width, height)];
+            int length = 0;
+
+            this.rayStarts = new int[size * DIRECTIONS + 1];
+            this.neighbours = new int[size * DIRECTIONS];
+            for (int cell = 0; cell < size; cell++) {
+                for (int direction = 0; direction < DIRECTIONS; direction++) {
+                    rayStarts[cell * DIRECTIONS + direction] = length;
+                    neighbours[cell * DIRECTIONS + direction] = -1;
 
-                accessiblePlaces += runFloodFillAvailablePlacesCalculator(mark, i + 1, j);
+                    int x = cell % width + dx[direction];
+                    int y = cell / width + dy[direction];
+                    if (x >= 0 && x < width && y >= 0 && y < height && !isBlock(y * width + x)) {
+                        neighbours[cell * DIRECTIONS + direction] = y * width + x;
+                    }
+                    while (x >= 0 && x < width && y >= 0 && y < height && !isBlock(y * width + x)) {
+                        rays[length++] = y * width + x;
+                        x += dx[direction];
+                        y += dy[direction];
+                    }
+                }
             }
+            rayStarts[size * DIRECTIONS] = length;
+
+            this.rays = Arrays.copyOf(rays, length);
+
+            Random random = new Random(ZOBRIST_SEED);
+            this.maxRange = Math.max(width, height);
+            this.boxKeys = randomKeys(random, size * BOX_KINDS);
+            this.itemKeys = randomKeys(random, size * BOX_KINDS);
+            this.bombOwnerKeys = randomKeys(random, size * HypersonicGameEngine.MAX_BOMBERMEN);
+            this.bombTurnKeys = randomKeys(random, size * TURN_KEYS);
+            this.bombRangeKeys = randomKeys(random, size * (maxRange + 1));
+            this.positionKeys = randomKeys(random, size * HypersonicGameEngine.MAX_BOMBERMEN);
+            this.turnKeys = randomKeys(random, TURN_KEYS);
+        }
 
-            if (j - 1 >= 0 &&
-                    !mark[i][j - 1] &&
-                    grid[i][j - 1] == CellType.FLOOR &&
-                    bombsGrid[i][j - 1] == null) {
+        private static long[] randomKeys(Random random, int count) {
+            long[] keys = new long[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = random.nextLong();
+            }
+            return keys;
+        }
 
-                accessiblePlaces += runFloodFillAvailablePlacesCalculator(mark, i, j - 1);
+        /**
+         * Returns the topology of the given block layout, computing it the first time the layout is seen, or once it
+         * was dropped from the cache
+         */
+        public static GridTopology of(int width, int height, long[] blocks) {
+            Layout layout = new Layout(width, height, blocks);
+            synchronized (TOPOLOGIES) {
+                return TOPOLOGIES.computeIfAbsent(layout, GridTopology::new);
             }
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public boolean isBlock(int cell) {
+            return (blocks[cell >>> 6] & (1L << cell)) != 0;
+        }
+
+        /**
+         * @return the index in {@link #rays} of the first cell of the ray
+         */
+        int rayStart(int cell, int direction) {
+            return rayStarts[cell * DIRECTIONS + direction];
+        }
+
+        /**
+         * @return the index in {@link #rays} right after the last cell of the ray
+         */
+        int rayEnd(int cell, int direction) {
+            return rayStarts[cell * DIRECTIONS + direction + 1];
+        }
+
+        /**
+         * @return the adjacent cell in the given direction, or {@code -1} if it is a block or off the board
+         */
+        int neighbour(int cell, int direction) {
+            return neighbours[cell * DIRECTIONS + direction];
+        }
+
+        /**
+         * @param kind one of the engine's box kinds, telling which item the box hides
+         */
+        long boxKey(int cell, int kind) {
+            return boxKeys[cell * BOX_KINDS + kind];
+        }
+
+        /**
+         * @param kind one of the engine's item kinds
+         */
+        long itemKey(int cell, int kind) {
+            return itemKeys[cell * BOX_KINDS + kind];
+        }
+
+        /**
+         * A cell holds a single bomb, so its owner, explosion turn and range can be keyed apart. Bombs go off at
+         * most 8 turns ahead, so keeping the lowest bits of the explosion turn is enough to tell them apart.
+         */
+        long bombKey(int cell, int owner, int explosionTurn, int range) {
+            return bombOwnerKeys[cell * HypersonicGameEngine.MAX_BOMBERMEN + owner]
+                    ^ bombTurnKeys[cell * TURN_KEYS + (explosionTurn & (TURN_KEYS - 1))]
+                    ^ bombRangeKeys[cell * (maxRange + 1) + Math.min(range, maxRange)];
+        }
+
+        long positionKey(int id, int cell) {
+            return positionKeys[cell * HypersonicGameEngine.MAX_BOMBERMEN + id];
+        }
+
+        /**
+         * Bombs are keyed by the turn they go off, so the turn has to be keyed too for their timers to tell apart
+         */
+        long turnKey(int turn) {
+            return turnKeys[turn & (TURN_KEYS - 1)];
+        }
+
+        private static final class Layout {
 
-            if (j + 1 < width &&
-                    !mark[i][j + 1] &&
-                    grid[i][j + 1] == CellType.FLOOR &&
-                    bombsGrid[i][j + 1] == null) {
+            private final int width;
+            private final int height;
+            private final long[] blocks;
 
-                accessiblePlaces += runFloodFillAvailablePlacesCalculator(mark, i, j + 1);
+            Layout(int width, int height, long[] blocks) {
+                this.width = width;
+                this.height = height;
+                this.blocks = blocks;
             }
 
-            return accessiblePlaces;
+            @Override
+            public boolean equals(Object o) {
+                if (this == o) {
+                    return true;
+                }
+
+                if (o == null || getClass() != o.getClass()) {
+                    return false;
+                }
+
+                Layout layout = (Layout) o;
+                return width == layout.width &&
+                        height == layout.height &&
+                        Arrays.equals(blocks, layout.blocks);
+            }
+
+            @Override
+            public int hashCode() {
+                return Objects.hash(width, height, Arrays.hashCode(blocks));
+            }
         }
     }
 
+    /**
+     * Keeps the last read state in flat arrays indexed by {@code y * width + x}: a byte per cell for its
+     * {@link CellType} ordinal, a byte per cell for the item lying there, and bombs in parallel int arrays.
+     * {@link #getGrid()}, {@link #getBombs()} and {@link #getItems()} are views built on first use after each update.
+     */
     public static class InputRepository implements RepositoryUpdater {
 
+        static final byte NO_ITEM = 0;
+
+        private static final CellType[] CELL_TYPES = CellType.values();
+        private static final ItemType[] ITEM_TYPES = ItemType.values();
+
         private final InputSupplier in;
 
         private final int width;
         private final int height;
         private final int myId;
 
-        private final CellType[][] grid;
-        private final List<Bomb> bombs;
-        private final List<Item> items;
+        // the ordinal of the cell's type
+        final byte[] cellTypes;
+        // NO_ITEM, or the item type ordinal plus one
+        final byte[] itemTypes;
+
+        final int[] bombOwners;
+        final int[] bombTimers;
+        final int[] bombRanges;
+        final int[] bombPositions;
+        int bombCount;
 
         private final List<Bomberman> bombermen;
 
+        private CellType[][] grid;
+        private List<Bomb> bombs;
+        private List<Item> items;
+
         private Bomberman player;
 
         private int remainingRounds;
@@ -881,9 +4639,12 @@ public final class Player {
 
             this.remainingRounds = 200;
 
-            this.grid = new CellType[height][width];
-            this.bombs = new ArrayList<>();
-            this.items = new ArrayList<>();
+            this.cellTypes = new byte[height * width];
+            this.itemTypes = new byte[height * width];
+            this.bombOwners = new int[height * width];
+            this.bombTimers = new int[height * width];
+            this.bombRanges = new int[height * width];
+            this.bombPositions = new int[height * width];
             this.bombermen = new ArrayList<>();
         }
 
@@ -892,27 +4653,33 @@ public final class Player {
 
             remainingRounds--;
 
-            bombs.clear();
-            items.clear();
+            grid = null;
+            bombs = null;
+            items = null;
+
+            bombCount = 0;
+            Arrays.fill(itemTypes, NO_ITEM);
             bombermen.clear();
 
             for (int i = 0; i < height; i++) {
                 String row = in.nextLine();
                 for (int j = 0; j < row.length(); j++) {
                     char cell = row.charAt(j);
+                    CellType cellType;
                     if (cell == '.') {
-                        this.grid[i][j] = CellType.FLOOR;
+                        cellType = CellType.FLOOR;
                     } else if (cell == 'X') {
-                        this.grid[i][j] = CellType.BLOCK;
+                        cellType = CellType.BLOCK;
                     } else {
                         if (cell == '0') {
-                            this.grid[i][j] = CellType.BOX_WITH_NO_ITEM;
+                            cellType = CellType.BOX_WITH_NO_ITEM;
                         } else if (cell == '1') {
-                            this.grid[i][j] = CellType.BOX_WITH_EXTRA_RANGE;
+                            cellType = CellType.BOX_WITH_EXTRA_RANGE;
                         } else {
-                            this.grid[i][j] = CellType.BOX_WITH_EXTRA_BOMB;
+                            cellType = CellType.BOX_WITH_EXTRA_BOMB;
                         }
                     }
+                    cellTypes[i * width + j] = (byte) cellType.ordinal();
                 }
             }
 
@@ -933,7 +4700,11 @@ public final class Player {
                     }
                     bombermen.add(player);
                 } else if (entityType == 1) {
-                    bombs.add(new Bomb(owner, x, y, param1, param2));
+                    bombOwners[bombCount] = owner;
+                    bombTimers[bombCount] = param1;
+                    bombRanges[bombCount] = param2;
+                    bombPositions[bombCount] = y * width + x;
+                    bombCount++;
                     for (Bomberman bomberman : bombermen) {
                         if (bomberman.getId() == owner) {
                             bomberman.incrementTotalAvailableBombs();
@@ -941,8 +4712,8 @@ public final class Player {
                         }
                     }
                 } else {
-                    Item item = new Item((param1 == 1) ? ItemType.EXTRA_RANGE : ItemType.EXTRA_BOMB, x, y);
-                    items.add(item);
+                    ItemType itemType = (param1 == 1) ? ItemType.EXTRA_RANGE : ItemType.EXTRA_BOMB;
+                    itemTypes[y * width + x] = (byte) (itemType.ordinal() + 1);
                 }
             }
 
@@ -962,6 +4733,14 @@ public final class Player {
         }
 
         public CellType[][] getGrid() {
+            if (grid == null) {
+                grid = new CellType[height][width];
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        grid[y][x] = CELL_TYPES[cellTypes[y * width + x]];
+                    }
+                }
+            }
             return grid;
         }
 
@@ -970,10 +4749,25 @@ public final class Player {
         }
 
         public List<Bomb> getBombs() {
+            if (bombs == null) {
+                bombs = new ArrayList<>(bombCount);
+                for (int i = 0; i < bombCount; i++) {
+                    int cell = bombPositions[i];
+                    bombs.add(new Bomb(bombOwners[i], cell % width, cell / width, bombTimers[i], bombRanges[i]));
+                }
+            }
             return bombs;
         }
 
         public List<Item> getItems() {
+            if (items == null) {
+                items = new ArrayList<>();
+                for (int cell = 0; cell < itemTypes.length; cell++) {
+                    if (itemTypes[cell] != NO_ITEM) {
+                        items.add(new Item(ITEM_TYPES[itemTypes[cell] - 1], cell % width, cell / width));
+                    }
+                }
+            }
             return items;
         }
 
@@ -1123,6 +4917,10 @@ public final class Player {
             this.explosionRange++;
         }
 
+        public void decrementExplosionRange() {
+            this.explosionRange--;
+        }
+
         public Cell getCell() {
             return cell;
         }
@@ -1135,10 +4933,28 @@ public final class Player {
             this.totalAvailableBombs++;
         }
 
+        public void decrementTotalAvailableBombs() {
+            this.totalAvailableBombs--;
+        }
+
         public int getTotalAvailableBombs() {
             return totalAvailableBombs;
         }
 
+        /**
+         * Overwrites this bomberman's state with the other's, which must have the same id
+         */
+        public void copyFrom(Bomberman other) {
+            if (other.getId() != id) {
+                throw new IllegalArgumentException("Cannot copy bomberman " + other.getId() + " into " + id);
+            }
+
+            this.cell = other.getCell();
+            this.bombsToPlace = other.getBombsToPlace();
+            this.explosionRange = other.getExplosionRange();
+            this.totalAvailableBombs = other.getTotalAvailableBombs();
+        }
+
         // public Action perform(SimplifiedAction action) {
         // int x = getCell().getX();
         // int y = getCell().getY();
@@ -1456,16 +5272,26 @@ public final class Player {
 
     public static abstract class AI {
 
+        protected static final long NO_TIME_BUDGET = 0L;
+
+        /**
+         * The deadline of a turn without a time budget, which is never past
+         */
+        protected static final long NO_DEADLINE = Long.MIN_VALUE;
+
         private final Map<String, Object> conf;
         private final RepositoryUpdater updater;
+        private final long firstTurnBudget;
+        private final long turnBudget;
+
+        private boolean played;
 
         /**
          * Builds an AI with specified configuration.<br>
          * It is recommended to create a default configuration.
          */
         public AI(Map<String, Object> conf, RepositoryUpdater updater) {
-            this.conf = Collections.unmodifiableMap(conf);
-            this.updater = updater;
+            this(conf, updater, NO_TIME_BUDGET, NO_TIME_BUDGET);
         }
 
         /**
@@ -1475,6 +5301,24 @@ public final class Player {
             this(Collections.emptyMap(), updater);
         }
 
+        /**
+         * Builds an AI with an empty configuration that searches each turn within a time budget, see
+         * {@link #nextDeadline()}.
+         *
+         * @param firstTurnBudget the nanoseconds the first turn may take, or {@link #NO_TIME_BUDGET}
+         * @param turnBudget the nanoseconds every other turn may take, or {@link #NO_TIME_BUDGET}
+         */
+        protected AI(RepositoryUpdater updater, long firstTurnBudget, long turnBudget) {
+            this(Collections.emptyMap(), updater, firstTurnBudget, turnBudget);
+        }
+
+        private AI(Map<String, Object> conf, RepositoryUpdater updater, long firstTurnBudget, long turnBudget) {
+            this.conf = Collections.unmodifiableMap(conf);
+            this.updater = updater;
+            this.firstTurnBudget = firstTurnBudget;
+            this.turnBudget = turnBudget;
+        }
+
         /**
          * Implements the IA algorithm
          *
@@ -1482,6 +5326,34 @@ public final class Player {
          */
         public abstract Action[] play();
 
+        /**
+         * Called once the actions played are written, to search ahead while the other players play their turn. The
+         * search goes on until the next call to {@link #play()}, which may reuse it. It does nothing by default.
+         */
+        public void ponder() {
+            // no search ahead
+        }
+
+        /**
+         * Starts the search of a turn, to be called first thing in {@link #play()}: budgets are counted from that
+         * call, and the first call gets the budget of the first turn.
+         *
+         * @return the time the turn has to be played by, on the {@link System#nanoTime()} scale, or
+         * {@link #NO_DEADLINE} without a time budget
+         */
+        protected final long nextDeadline() {
+            long budget = played ? turnBudget : firstTurnBudget;
+            played = true;
+            return budget == NO_TIME_BUDGET ? NO_DEADLINE : System.nanoTime() + budget;
+        }
+
+        /**
+         * @param deadline as returned by {@link #nextDeadline()}
+         */
+        protected static boolean isPast(long deadline) {
+            return deadline != NO_DEADLINE && System.nanoTime() - deadline >= 0;
+        }
+
         public Map<String, Object> getConf() {
             return conf;
         }
@@ -9,10 +9,12 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 
 import player.Player.AI;
+import player.Player.BeamSearchAI;
 import player.Player.BlockAwareAI;
 import player.Player.DefaultGeneticAI;
 import player.Player.InputRepository;
 import player.Player.InputSupplier;
+import player.Player.MonteCarloAI;
 import player.contest.Contest.ContestResult;
 import player.engine.GameEngine;
 import player.engine.PvPGE;
@@ -79,6 +81,8 @@ public final class ContestRunner {
         }
 
         list.add(aiSupplier -> () -> new DefaultGeneticAI(new InputRepository(aiSupplier)));
+        list.add(aiSupplier -> () -> new MonteCarloAI(new InputRepository(aiSupplier)));
+        list.add(aiSupplier -> () -> new BeamSearchAI(new InputRepository(aiSupplier)));
 
         return list;
     }
@@ -0,0 +1,114 @@
+package player;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import player.Player.AI;
+import player.Player.Action;
+import player.Player.BeamSearchAI;
+import player.Player.Bomb;
+import player.Player.Bomberman;
+import player.Player.InputRepository;
+import player.Player.RoundEvaluation;
+import player.Player.RoundStats;
+import player.Player.SimplifiedAction;
+
+@DisplayName("A beam search AI")
+class BeamSearchAITest implements SearchAIFixture {
+
+    @Test
+    @DisplayName("walks out of the blast of a bomb about to go off")
+    void walksOutOfTheBlastOfABombAboutToGoOff() {
+        InputRepository repository = new InputRepository(
+                new InputSupplierState()
+                        .withGrid(
+                                ".....",
+                                ".....",
+                                ".....",
+                                ".....",
+                                ".....")
+                        .withBombermans(new Bomberman(0, 0, 0, 1, 3), new Bomberman(1, 4, 4, 1, 3))
+                        .withBombs(new Bomb(1, 0, 0, 2, 3))
+                        .toInputSupplier());
+        repository.update();
+
+        AI ai = new BeamSearchAI(50, 4, repository, EVALUATION, 0L, 0L);
+
+        // only the cell out of the row and column of the bomb is two moves away
+        assertThat(ai.play()[0].asString()).isIn(
+                Action.forSimplifiedAction(SimplifiedAction.MOVE_RIGHT, 0, 0, 5, 5).asString(),
+                Action.forSimplifiedAction(SimplifiedAction.MOVE_DOWN, 0, 0, 5, 5).asString());
+    }
+
+    @Test
+    @DisplayName("plays a plan it survives over a better scored one it dies in, when the deadline cuts a round")
+    void playsAPlanItSurvivesOverABetterScoredOneItDiesInWhenTheDeadlineCutsARound() {
+        InputRepository repository = new InputRepository(
+                new InputSupplierState()
+                        .withGrid(
+                                ".....",
+                                ".....",
+                                ".....",
+                                ".....",
+                                ".....")
+                        .withBombermans(new Bomberman(0, 0, 1, 1, 3), new Bomberman(1, 4, 4, 0, 3))
+                        .withBombs(new Bomb(1, 2, 0, 2, 3))
+                        .toInputSupplier());
+        repository.update();
+
+        // dying scores best, and the corner the blast reaches on the second round is the first state expanded then,
+        // as the one with the fewest places to move to
+        SlowEvaluation evaluation = new SlowEvaluation(
+                (before, after, round, rounds) -> after.isDead() ? 100.0 : after.getDegreesOfFreedom(),
+                2 * TURN_BUDGET);
+        AI ai = new BeamSearchAI(50, 4, repository, evaluation, TURN_BUDGET, TURN_BUDGET);
+
+        String action = ai.play()[0].asString();
+
+        // only the children of the first state were scored on the second round
+        assertThat(evaluation.secondRounds).isEqualTo(SimplifiedAction.values().length);
+        assertThat(action).isNotIn(
+                Action.forSimplifiedAction(SimplifiedAction.MOVE_UP, 0, 1, 5, 5).asString(),
+                Action.forSimplifiedAction(SimplifiedAction.BOMB_AND_MOVE_UP, 0, 1, 5, 5).asString());
+    }
+
+    @Test
+    @DisplayName("stops searching when its time budget runs out")
+    void stopsSearchingWhenItsTimeBudgetRunsOut() {
+        InputRepository repository = new InputRepository(new InputSupplierState().toInputSupplier());
+        repository.update();
+
+        // far too wide and deep a search to be over within the budgets
+        BeamSearchAI ai = new BeamSearchAI(5_000, 200, repository, EVALUATION, FIRST_TURN_BUDGET, TURN_BUDGET);
+
+        // the first rounds only hold a few states, the last one is out of reach
+        assertSearchesAsLongAsItsBudgetsAllow(ai, ai::getSearchedRounds, 2, 199);
+    }
+
+    /**
+     * Takes longer than the given time on the first round scored past the first one, so that the deadline cuts
+     * that round
+     */
+    private static final class SlowEvaluation implements RoundEvaluation {
+
+        private final RoundEvaluation evaluation;
+        private final long delay;
+        private int secondRounds;
+
+        SlowEvaluation(RoundEvaluation evaluation, long delay) {
+            this.evaluation = evaluation;
+            this.delay = delay;
+        }
+
+        @Override
+        public double evaluate(RoundStats before, RoundStats after, int round, int rounds) {
+            if (round == 1 && secondRounds++ == 0) {
+                long end = System.nanoTime() + delay;
+                while (System.nanoTime() - end < 0) {
+                    Thread.yield();
+                }
+            }
+            return evaluation.evaluate(before, after, round, rounds);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package player;
+
+import java.util.Random;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import player.Player.BlockAwareAI;
+import player.Player.Bomberman;
+import player.Player.HypersonicGameEngine;
+import player.Player.InputRepository;
+import player.Player.Item;
+import player.Player.ItemType;
+import player.Player.RoundEvaluation;
+import player.Player.RoundStats;
+import player.Player.SimplifiedAction;
+
+@DisplayName("A block aware AI")
+class BlockAwareAITest implements WithAssertions {
+
+    private static final int ROUNDS = 16;
+
+    private static final SimplifiedAction[] POSSIBLE_ACTIONS = SimplifiedAction.values();
+
+    @Test
+    @DisplayName("bounds the rounds left of a plan by no less than they add to its score")
+    void boundsTheRoundsLeftOfAPlanByNoLessThanTheyAddToItsScore() {
+        RoundEvaluation evaluation = BlockAwareAI.evaluation(500, 45, 30, 10, 60);
+
+        // a small board, bombs to spare and items at hand, so that plans destroy boxes and pick items
+        InputRepository repository = new InputRepository(
+                new InputSupplierState()
+                        .withGrid(
+                                "...0.",
+                                ".....",
+                                "0....")
+                        .withBombermans(new Bomberman(0, 0, 0, 3, 3), new Bomberman(1, 4, 2, 1, 3))
+                        .withItems(new Item(ItemType.EXTRA_BOMB, 1, 0), new Item(ItemType.EXTRA_RANGE, 0, 1))
+                        .toInputSupplier());
+        repository.update();
+        HypersonicGameEngine engine = new HypersonicGameEngine(repository, repository.getPlayer());
+
+        Random random = new Random(7);
+        for (int plan = 0; plan < 200; plan++) {
+            HypersonicGameEngine replay = new HypersonicGameEngine(engine);
+
+            RoundStats[] befores = new RoundStats[ROUNDS];
+            double[] scores = new double[ROUNDS];
+            RoundStats after = new RoundStats();
+            int played = 0;
+            // plans end with the death of the player
+            while (played < ROUNDS && !after.isDead()) {
+                befores[played] = new RoundStats();
+                befores[played].capture(replay, false);
+                replay.perform(true, POSSIBLE_ACTIONS[random.nextInt(POSSIBLE_ACTIONS.length)]);
+                after.capture(replay, false);
+                scores[played] = evaluation.evaluate(befores[played], after, played, ROUNDS);
+                played++;
+            }
+
+            double left = 0.0;
+            for (int round = played - 1; round >= 0; round--) {
+                left += scores[round];
+                assertThat(evaluation.bound(befores[round], round, ROUNDS)).isGreaterThanOrEqualTo(left);
+            }
+        }
+    }
+}
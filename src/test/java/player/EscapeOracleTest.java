@@ -0,0 +1,103 @@
+package player;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import player.Player.Bomb;
+import player.Player.Bomberman;
+import player.Player.EscapeOracle;
+import player.Player.HypersonicGameEngine;
+import player.Player.InputRepository;
+
+@DisplayName("An escape oracle")
+class EscapeOracleTest implements WithAssertions {
+
+    @Test
+    @DisplayName("finds a way out only when the bomb leaves time to turn the corner")
+    void findsAWayOutOnlyWhenTheBombLeavesTimeToTurnTheCorner() {
+        EscapeOracle early = oracleOf(new InputSupplierState()
+                .withGrid(
+                        "...",
+                        "...")
+                .withBombermans(new Bomberman(0, 0, 0, 0, 3))
+                .withBombs(new Bomb(0, 0, 0, 2, 3)));
+
+        EscapeOracle late = oracleOf(new InputSupplierState()
+                .withGrid(
+                        "...",
+                        "...")
+                .withBombermans(new Bomberman(0, 0, 0, 0, 3))
+                .withBombs(new Bomb(0, 0, 0, 3, 3)));
+
+        assertThat(early.canEscape(0, 0, 0)).isFalse();
+        assertThat(late.canEscape(0, 0, 0)).isTrue();
+        assertThat(late.canEscape(2, 0, 1)).isTrue();
+        // still on the bomb the turn before it goes off
+        assertThat(late.canEscape(0, 0, 2)).isFalse();
+        // the blast is over
+        assertThat(late.canEscape(0, 0, 3)).isTrue();
+    }
+
+    @Test
+    @DisplayName("lets the bomberman through a box once a blast cleared it")
+    void letsTheBombermanThroughABoxOnceABlastClearedIt() {
+        EscapeOracle cleared = oracleOf(new InputSupplierState()
+                .withGrid("..0..")
+                .withBombermans(new Bomberman(0, 0, 0, 0, 3))
+                .withBombs(new Bomb(0, 0, 0, 4, 2), new Bomb(0, 4, 0, 1, 5)));
+
+        EscapeOracle standing = oracleOf(new InputSupplierState()
+                .withGrid("..0..")
+                .withBombermans(new Bomberman(0, 0, 0, 0, 3))
+                .withBombs(new Bomb(0, 0, 0, 4, 2)));
+
+        assertThat(cleared.canEscape(0, 0, 0)).isTrue();
+        assertThat(standing.canEscape(0, 0, 0)).isFalse();
+    }
+
+    @Test
+    @DisplayName("keeps the bomberman off a cell until the last of the blasts reaching it went off")
+    void keepsTheBombermanOffACellUntilTheLastOfTheBlastsReachingItWentOff() {
+        // the middle cell is blasted on the second and the fifth turns
+        EscapeOracle oracle = oracleOf(new InputSupplierState()
+                .withGrid(".....")
+                .withBombermans(new Bomberman(0, 2, 0, 0, 3))
+                .withBombs(new Bomb(1, 0, 0, 2, 3), new Bomb(1, 4, 0, 5, 3)));
+
+        assertThat(oracle.canEscape(2, 0, 3)).isTrue();
+        // the second blast goes off before it can move away
+        assertThat(oracle.canEscape(2, 0, 4)).isFalse();
+        assertThat(oracle.canEscape(1, 0, 4)).isTrue();
+    }
+
+    @Test
+    @DisplayName("lets the bomberman through a box a blast clears once an earlier one cleared the box before it")
+    void letsTheBombermanThroughABoxABlastClearsOnceAnEarlierOneClearedTheBoxBeforeIt() {
+        // the bomb on the right clears the second box only once the one below cleared the first box, and the
+        // bomberman has to be gone before its own bomb goes off
+        InputSupplierState state = new InputSupplierState()
+                .withGrid(
+                        ".00...",
+                        "XX.XXX")
+                .withBombermans(new Bomberman(0, 0, 0, 0, 3));
+
+        EscapeOracle cleared = oracleOf(state
+                .withBombs(new Bomb(1, 2, 1, 2, 2), new Bomb(1, 5, 0, 5, 5), new Bomb(0, 0, 0, 8, 2)));
+
+        EscapeOracle standing = oracleOf(state
+                .withBombs(new Bomb(1, 2, 1, 2, 2), new Bomb(0, 0, 0, 8, 2)));
+
+        assertThat(cleared.canEscape(0, 0, 0)).isTrue();
+        assertThat(standing.canEscape(0, 0, 0)).isFalse();
+    }
+
+    private static EscapeOracle oracleOf(InputSupplierState state) {
+        InputRepository repository = new InputRepository(state.toInputSupplier());
+        repository.update();
+
+        EscapeOracle oracle = new EscapeOracle();
+        oracle.compute(new HypersonicGameEngine(repository, repository.getBombermen()));
+        return oracle;
+    }
+}
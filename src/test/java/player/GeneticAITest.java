@@ -0,0 +1,301 @@
+package player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import player.Player.AI;
+import player.Player.Action;
+import player.Player.BlockAwareAI;
+import player.Player.Bomberman;
+import player.Player.GeneticAI;
+import player.Player.InputRepository;
+import player.Player.Item;
+import player.Player.ItemType;
+import player.Player.RoundEvaluation;
+import player.Player.RoundStats;
+import player.Player.RouletteSelection;
+import player.Player.SimplifiedAction;
+import player.Player.StayOpponents;
+import player.engine.PvPGE;
+
+@DisplayName("A genetic AI")
+class GeneticAITest implements WithAssertions {
+
+    @Test
+    @DisplayName("plays the same moves whether chromosomes are scored by workers or not")
+    void playsTheSameMovesWhetherChromosomesAreScoredByWorkersOrNot() {
+        ForkJoinPool workers = new ForkJoinPool(4);
+
+        try {
+            AI serial = anyBlockAwareAI(new Random(7), null);
+            AI parallel = anyBlockAwareAI(new Random(7), workers);
+
+            assertThat(play(parallel, 10)).containsExactlyElementsOf(play(serial, 10));
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("plays the same moves whether islands are evolved by workers or not")
+    void playsTheSameMovesWhetherIslandsAreEvolvedByWorkersOrNot() {
+        ForkJoinPool workers = new ForkJoinPool(4);
+
+        try {
+            AI serial = anyBlockAwareAI(new Random(7), null, 4, 0L, 0L);
+            AI parallel = anyBlockAwareAI(new Random(7), workers, 4, 0L, 0L);
+
+            assertThat(play(parallel, 10)).containsExactlyElementsOf(play(serial, 10));
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("searches for as long as its time budget allows")
+    void searchesForAsLongAsItsTimeBudgetAllows() {
+        long firstTurnBudget = TimeUnit.MILLISECONDS.toNanos(60);
+        long turnBudget = TimeUnit.MILLISECONDS.toNanos(20);
+
+        AI ai = anyBlockAwareAI(new Random(7), null, 1, firstTurnBudget, turnBudget);
+
+        long start = System.nanoTime();
+        ai.play();
+        long firstTurn = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        ai.play();
+        long secondTurn = System.nanoTime() - start;
+
+        assertThat(firstTurn).isBetween(firstTurnBudget, firstTurnBudget + TimeUnit.SECONDS.toNanos(1));
+        assertThat(secondTurn).isBetween(turnBudget, turnBudget + TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    @DisplayName("stops pondering to play within its time budget")
+    void stopsPonderingToPlayWithinItsTimeBudget() throws InterruptedException {
+        long turnBudget = TimeUnit.MILLISECONDS.toNanos(20);
+
+        AI ai = anyBlockAwareAI(new Random(7), null, 1, turnBudget, turnBudget);
+
+        ai.play();
+        ai.ponder();
+        Thread.sleep(50);
+
+        long start = System.nanoTime();
+        ai.play();
+        long turn = System.nanoTime() - start;
+
+        assertThat(turn).isBetween(turnBudget, turnBudget + TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    @DisplayName("goes on from the pondered generations when it reads the state it expected")
+    void goesOnFromThePonderedGenerationsWhenItReadsTheStateItExpected() throws InterruptedException {
+        // the player cannot help staying, so the state read next turn is the one expected
+        InputSupplierState state = walledInState();
+
+        CountingEvaluation evaluation = new CountingEvaluation();
+        AI ai = anyGeneticAI(new InputRepository(state.toInputSupplier(state)), evaluation);
+        ai.play();
+        ai.ponder();
+        awaitPondering(evaluation);
+
+        evaluation.played.set(0);
+        ai.updateRepository();
+        ai.play();
+
+        // without generations to breed, a turn only scores the chromosomes it seeds the islands with
+        assertThat(evaluation.played.get()).isZero();
+
+        CountingEvaluation notPondered = new CountingEvaluation();
+        AI another = anyGeneticAI(new InputRepository(state.toInputSupplier(state)), notPondered);
+        another.play();
+
+        notPondered.played.set(0);
+        another.updateRepository();
+        another.play();
+
+        assertThat(notPondered.played.get()).isPositive();
+    }
+
+    @Test
+    @DisplayName("seeds the islands again when it reads another state than the one it expected")
+    void seedsTheIslandsAgainWhenItReadsAnotherStateThanTheOneItExpected() throws InterruptedException {
+        // an item shows up that the player could not have expected
+        InputSupplierState state = walledInState();
+        InputSupplierState unexpected = walledInState().withItems(new Item(ItemType.EXTRA_BOMB, 4, 2));
+
+        CountingEvaluation evaluation = new CountingEvaluation();
+        AI ai = anyGeneticAI(new InputRepository(state.toInputSupplier(unexpected)), evaluation);
+        ai.play();
+        ai.ponder();
+        awaitPondering(evaluation);
+
+        evaluation.played.set(0);
+        ai.updateRepository();
+        ai.play();
+
+        assertThat(evaluation.played.get()).isPositive();
+    }
+
+    @Test
+    @DisplayName("goes on from the pondered generations when the bomb it placed is read next turn")
+    void goesOnFromThePonderedGenerationsWhenTheBombItPlacedIsReadNextTurn() throws InterruptedException {
+        // both corners are walled in, so whichever the player starts from it can only stay or bomb itself in
+        PvPGE referee = new PvPGE(
+                ".0...........",
+                "X............",
+                ".............",
+                ".............",
+                ".............",
+                ".............",
+                ".............",
+                ".............",
+                ".............",
+                "............X",
+                "...........0.");
+        InputRepository repository = new InputRepository(referee.playerInput());
+
+        // plans are cut short once the player is trapped, so the shortest plan, bombing first, scores best
+        CountingEvaluation evaluation = new CountingEvaluation((before, after, round, rounds) -> -1.0);
+        AI ai = anyGeneticAI(repository, evaluation);
+        referee.run(ai.play(), new Action[] { Action.forSimplifiedAction(SimplifiedAction.STAY, 0, 0, 11, 13) });
+        ai.ponder();
+        awaitPondering(evaluation);
+
+        evaluation.played.set(0);
+        ai.updateRepository();
+        ai.play();
+
+        assertThat(repository.getBombs()).hasSize(1);
+        assertThat(evaluation.played.get()).isZero();
+    }
+
+    /**
+     * Walled in and out of bombs, whatever the player does it stays where it is
+     */
+    private static InputSupplierState walledInState() {
+        return new InputSupplierState()
+                .withGrid(
+                        ".X...",
+                        "X....",
+                        ".....")
+                .withBombermans(new Bomberman(0, 0, 0, 0, 3), new Bomberman(1, 4, 0, 1, 3));
+    }
+
+    /**
+     * Waits for the pondering thread to score its first chromosome, once it started seeding the islands
+     */
+    private void awaitPondering(CountingEvaluation evaluation) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (evaluation.pondered.get() == 0 && System.nanoTime() - deadline < 0) {
+            Thread.sleep(1);
+        }
+        assertThat(evaluation.pondered.get()).isPositive();
+    }
+
+    private static AI anyGeneticAI(InputRepository repository, RoundEvaluation evaluation) {
+        repository.update();
+
+        // breeds no generation on its own turns, only while pondering
+        return new GeneticAI(
+                8,
+                10,
+                0,
+                .7,
+                .001,
+                .25,
+                RouletteSelection::new,
+                1,
+                1,
+                1,
+                0,
+                repository,
+                evaluation,
+                new StayOpponents(),
+                new Random(7),
+                null,
+                0L,
+                0L);
+    }
+
+    private static AI anyBlockAwareAI(Random random, ForkJoinPool workers) {
+        return anyBlockAwareAI(random, workers, 1, 0L, 0L);
+    }
+
+    private static AI anyBlockAwareAI(
+            Random random,
+            ForkJoinPool workers,
+            int islands,
+            long firstTurnBudget,
+            long turnBudget) {
+
+        InputRepository repository = new InputRepository(new InputSupplierState().toInputSupplier());
+        repository.update();
+
+        return new BlockAwareAI(
+                500,
+                45,
+                30,
+                10,
+                60,
+                RouletteSelection::new,
+                1,
+                islands,
+                2,
+                2,
+                repository,
+                new StayOpponents(),
+                random,
+                workers,
+                firstTurnBudget,
+                turnBudget);
+    }
+
+    /**
+     * Counts the rounds scored on the thread that built it apart from those scored while pondering
+     */
+    private static final class CountingEvaluation implements RoundEvaluation {
+
+        private final Thread player = Thread.currentThread();
+        private final AtomicInteger played = new AtomicInteger();
+        private final AtomicInteger pondered = new AtomicInteger();
+        private final RoundEvaluation evaluation;
+
+        CountingEvaluation() {
+            this((before, after, round, rounds) ->
+                    after.isDead() ? 0.0 : (rounds - round) * after.getDegreesOfFreedom());
+        }
+
+        CountingEvaluation(RoundEvaluation evaluation) {
+            this.evaluation = evaluation;
+        }
+
+        @Override
+        public double evaluate(RoundStats before, RoundStats after, int round, int rounds) {
+            (Thread.currentThread() == player ? played : pondered).incrementAndGet();
+            return evaluation.evaluate(before, after, round, rounds);
+        }
+    }
+
+    private static List<String> play(AI ai, int times) {
+        List<String> moves = new ArrayList<>();
+
+        for (int i = 0; i < times; i++) {
+            for (Action action : ai.play()) {
+                moves.add(action.asString());
+            }
+        }
+
+        return moves;
+    }
+}
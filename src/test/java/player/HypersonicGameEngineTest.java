@@ -1,21 +1,31 @@
 package player;
 
+import java.lang.management.ManagementFactory;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import com.sun.management.ThreadMXBean;
+
+import player.Player.Action;
 import player.Player.Bomb;
 import player.Player.Bomberman;
 import player.Player.Cell;
 import player.Player.CellType;
+import player.Player.EnginePool;
+import player.Player.GridTopology;
 import player.Player.HypersonicGameEngine;
+import player.Player.InputRepository;
 import player.Player.Item;
 import player.Player.ItemType;
 import player.Player.SimplifiedAction;
+import player.engine.PvPGE;
 
 @DisplayName("A hypersonic game engine")
 public class HypersonicGameEngineTest implements WithAssertions {
@@ -116,6 +126,48 @@ public class HypersonicGameEngineTest implements WithAssertions {
         assertThat(engine.getBombs()).isEmpty();
     }
 
+    @Test
+    @DisplayName("reports the action a bomberman actually carried out")
+    void reportsTheActionABombermanActuallyCarriedOut() {
+        CellType[][] grid =
+                createGrid(
+                        "..0",
+                        ".X.",
+                        "...");
+
+        List<Bomb> bombs = Collections.emptyList();
+        List<Item> items = Collections.emptyList();
+        Bomberman[] bombermen = new Bomberman[] { new Bomberman(0, 1, 0, 1, 2) };
+
+        HypersonicGameEngine engine = new HypersonicGameEngine(grid, bombs, items, bombermen);
+
+        assertThat(engine.perform(true, SimplifiedAction.MOVE_DOWN)).isEqualTo(SimplifiedAction.STAY);
+        assertThat(engine.perform(true, SimplifiedAction.BOMB_AND_MOVE_RIGHT)).isEqualTo(SimplifiedAction.BOMB_AND_STAY);
+        assertThat(engine.perform(true, SimplifiedAction.BOMB_AND_MOVE_LEFT)).isEqualTo(SimplifiedAction.MOVE_LEFT);
+        assertThat(engine.perform(true, SimplifiedAction.MOVE_DOWN)).isEqualTo(SimplifiedAction.MOVE_DOWN);
+    }
+
+    @Test
+    @DisplayName("reports the action of the first bomberman while the others play theirs")
+    void reportsTheActionOfTheFirstBombermanWhileTheOthersPlayTheirs() {
+        CellType[][] grid =
+                createGrid(
+                        "...",
+                        ".X.",
+                        "...");
+
+        List<Bomb> bombs = Collections.emptyList();
+        List<Item> items = Collections.emptyList();
+        Bomberman[] bombermen = new Bomberman[] { new Bomberman(0, 1, 0, 1, 2), new Bomberman(1, 2, 2, 1, 2) };
+
+        HypersonicGameEngine engine = new HypersonicGameEngine(grid, bombs, items, bombermen);
+        SimplifiedAction[] others = { SimplifiedAction.BOMB_AND_MOVE_UP };
+
+        assertThat(engine.perform(true, SimplifiedAction.MOVE_DOWN, others)).isEqualTo(SimplifiedAction.STAY);
+        assertThat(engine.getBombermen()[1].getCell()).isEqualTo(new Cell(2, 1));
+        assertThat(engine.getBombs()).extracting(Bomb::getOwner).containsExactly(1);
+    }
+
     @Test
     @DisplayName("kills players hit by explosions")
     void killsPlayersHitByExplosions() {
@@ -140,6 +192,84 @@ public class HypersonicGameEngineTest implements WithAssertions {
         assertThat(engine.getBombermen()[1]).extracting(Bomberman::getCell).containsOnly(new Cell(0, 1));
     }
 
+    @Test
+    @DisplayName("does not kill players sheltered by blocks")
+    void doesNotKillPlayersShelteredByBlocks() {
+        CellType[][] grid =
+                createGrid(
+                        "...",
+                        ".X.",
+                        "...");
+
+        List<Bomb> bombs = Collections.singletonList(new Bomb(0, 1, 0, 1, 5));
+        List<Item> items = Collections.emptyList();
+        Bomberman[] bombermen = new Bomberman[] { new Bomberman(0, 1, 2, 0, 0), new Bomberman(1, 2, 0, 0, 0) };
+
+        HypersonicGameEngine engine = new HypersonicGameEngine(grid, bombs, items, bombermen);
+
+        engine.perform(SimplifiedAction.STAY, SimplifiedAction.STAY);
+
+        assertThat(engine.isBombermenDead(0)).isFalse();
+        assertThat(engine.isBombermenDead(1)).isTrue();
+    }
+
+    @Test
+    @DisplayName("resolves simultaneous explosions against the board as it was before them")
+    void resolvesSimultaneousExplosionsAgainstTheBoardAsItWasBeforeThem() {
+        CellType[][] grid =
+                createGrid(
+                        ".....",
+                        "..2..",
+                        ".....");
+
+        List<Bomb> bombs = Arrays.asList(new Bomb(0, 0, 1, 1, 3), new Bomb(1, 4, 1, 1, 3));
+        List<Item> items = Collections.emptyList();
+        Bomberman[] bombermen = new Bomberman[0];
+
+        HypersonicGameEngine engine = new HypersonicGameEngine(grid, bombs, items, bombermen);
+
+        engine.perform();
+
+        assertThat(engine.getItems()).containsOnly(new Item(ItemType.EXTRA_BOMB, 2, 1));
+        assertThat(engine.getTotalDestroyedBoxes(0)).isEqualTo(1);
+        assertThat(engine.getTotalDestroyedBoxes(1)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("shares its topology with engines built on the same block layout")
+    void sharesItsTopologyWithEnginesBuiltOnTheSameBlockLayout() {
+        List<Bomb> bombs = Collections.emptyList();
+        List<Item> items = Collections.emptyList();
+
+        HypersonicGameEngine engine =
+                new HypersonicGameEngine(createGrid("...", ".X.", "..."), bombs, items);
+        HypersonicGameEngine sameBlocks =
+                new HypersonicGameEngine(createGrid("0..", ".X2", "..1"), bombs, items);
+        HypersonicGameEngine otherBlocks =
+                new HypersonicGameEngine(createGrid("...", "X..", "..."), bombs, items);
+
+        assertThat(engine.getTopology()).isSameAs(sameBlocks.getTopology());
+        assertThat(engine.getTopology()).isNotSameAs(otherBlocks.getTopology());
+    }
+
+    @Test
+    @DisplayName("forgets the topologies of the layouts it has not been built on for long")
+    void forgetsTheTopologiesOfTheLayoutsItHasNotBeenBuiltOnForLong() {
+        // a size no other test builds engines on
+        GridTopology topology = GridTopology.of(7, 2, new long[] { 0L });
+        for (int i = 1; i < GridTopology.CACHED_TOPOLOGIES; i++) {
+            GridTopology.of(7, 2, new long[] { 1L << i });
+        }
+
+        assertThat(GridTopology.of(7, 2, new long[] { 0L })).isSameAs(topology);
+
+        for (int i = 1; i <= GridTopology.CACHED_TOPOLOGIES; i++) {
+            GridTopology.of(7, 2, new long[] { 1L << (i + 7) });
+        }
+
+        assertThat(GridTopology.of(7, 2, new long[] { 0L })).isNotSameAs(topology);
+    }
+
     @Test
     @DisplayName("lets the player place a bomb")
     void letThePlayerPlaceABomb() {
@@ -201,6 +331,395 @@ public class HypersonicGameEngineTest implements WithAssertions {
         assertThat(engine.getBombermen()[0]).extracting(Bomberman::getCell).containsOnly(new Cell(0, 1));
     }
 
+    @Test
+    @DisplayName("knows when blasts reach each cell, chained detonations included")
+    void knowsWhenBlastsReachEachCellChainedDetonationsIncluded() {
+        CellType[][] grid = createGrid("......0.");
+
+        List<Bomb> bombs = Arrays.asList(new Bomb(0, 0, 0, 2, 3), new Bomb(1, 2, 0, 6, 3), new Bomb(1, 5, 0, 4, 5));
+        List<Item> items = Collections.emptyList();
+
+        HypersonicGameEngine engine = new HypersonicGameEngine(grid, bombs, items);
+
+        assertThat(engine.getTurnsBeforeBlast(0, 0)).isEqualTo(2);
+        assertThat(engine.getTurnsBeforeBlast(2, 0)).isEqualTo(2);
+        assertThat(engine.getTurnsBeforeBlast(3, 0)).isEqualTo(2);
+        assertThat(engine.getTurnsBeforeBlast(4, 0)).isEqualTo(2);
+        assertThat(engine.getTurnsBeforeBlast(5, 0)).isEqualTo(4);
+        assertThat(engine.getTurnsBeforeBlast(6, 0)).isEqualTo(4);
+        assertThat(engine.getTurnsBeforeBlast(7, 0)).isEqualTo(HypersonicGameEngine.NO_BLAST);
+    }
+
+    @Test
+    @DisplayName("keeps track of the danger of the bombs placed while playing")
+    void keepsTrackOfTheDangerOfTheBombsPlacedWhilePlaying() {
+        CellType[][] grid = createGrid(".....");
+
+        List<Bomb> bombs = Collections.singletonList(new Bomb(1, 4, 0, 3, 2));
+        List<Item> items = Collections.emptyList();
+
+        HypersonicGameEngine engine = new HypersonicGameEngine(grid, bombs, items, new Bomberman(0, 2, 0, 1, 2));
+
+        engine.perform(SimplifiedAction.BOMB_AND_MOVE_LEFT);
+
+        assertThat(engine.getTurnsBeforeBlast(0, 0)).isEqualTo(HypersonicGameEngine.NO_BLAST);
+        assertThat(engine.getTurnsBeforeBlast(1, 0)).isEqualTo(8);
+        assertThat(engine.getTurnsBeforeBlast(2, 0)).isEqualTo(8);
+        assertThat(engine.getTurnsBeforeBlast(3, 0)).isEqualTo(2);
+
+        engine.perform(SimplifiedAction.MOVE_LEFT);
+
+        assertThat(engine.getTurnsBeforeBlast(1, 0)).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("keeps its danger map through explosions, pickups and rewinds without rebuilding it")
+    void keepsItsDangerMapThroughExplosionsPickupsAndRewindsWithoutRebuildingIt() {
+        HypersonicGameEngine engine = anyBusyEngine();
+        int rebuilds = engine.getDangerRebuilds();
+
+        Random random = new Random(7);
+        SimplifiedAction[] actions = SimplifiedAction.values();
+        int[] marks = new int[40];
+        int depth = 0;
+        for (int i = 0; i < marks.length; i++) {
+            marks[depth++] = engine.mark();
+            engine.perform(
+                    true,
+                    actions[random.nextInt(actions.length)],
+                    actions[random.nextInt(actions.length)]);
+
+            assertThat(dangerOf(engine)).isEqualTo(dangerOf(rebuilt(engine)));
+
+            if (random.nextInt(4) == 0) {
+                depth = random.nextInt(depth);
+                engine.rewind(marks[depth]);
+
+                assertThat(dangerOf(engine)).isEqualTo(dangerOf(rebuilt(engine)));
+            }
+        }
+
+        assertThat(engine.getDangerRebuilds()).isEqualTo(rebuilds);
+    }
+
+    @Test
+    @DisplayName("finds the places a player can walk to and how far they are")
+    void findsThePlacesAPlayerCanWalkToAndHowFarTheyAre() {
+        CellType[][] grid =
+                createGrid(
+                        "..0..",
+                        ".X.X.",
+                        "...0.");
+
+        List<Bomb> bombs = Collections.singletonList(new Bomb(1, 4, 1, 8, 3));
+        List<Item> items = Collections.emptyList();
+
+        HypersonicGameEngine engine = new HypersonicGameEngine(grid, bombs, items, new Bomberman(0, 0, 0, 1, 3));
+
+        assertThat(engine.accessiblePlacesFor(0)).isEqualTo(7);
+
+        assertThat(engine.getDistance(0, 0)).isEqualTo(0);
+        assertThat(engine.getDistance(2, 1)).isEqualTo(5);
+        assertThat(engine.getDistance(4, 0)).isEqualTo(HypersonicGameEngine.UNREACHABLE);
+        assertThat(engine.getDistance(4, 2)).isEqualTo(HypersonicGameEngine.UNREACHABLE);
+
+        assertThat(engine.getReachedCell(0)).isEqualTo(0);
+        assertThat(engine.getReachedCell(6)).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("rewinds to the exact state it had when marked")
+    void rewindsToTheExactStateItHadWhenMarked() {
+        HypersonicGameEngine engine = anyBusyEngine();
+
+        String initialState = describe(engine);
+        int mark = engine.mark();
+
+        Random random = new Random(7);
+        SimplifiedAction[] actions = SimplifiedAction.values();
+        for (int i = 0; i < 20; i++) {
+            engine.perform(
+                    true,
+                    actions[random.nextInt(actions.length)],
+                    actions[random.nextInt(actions.length)]);
+        }
+
+        assertThat(describe(engine)).isNotEqualTo(initialState);
+
+        engine.rewind(mark);
+
+        assertThat(describe(engine)).isEqualTo(initialState);
+    }
+
+    @Test
+    @DisplayName("undoes the last performed turn")
+    void undoesTheLastPerformedTurn() {
+        HypersonicGameEngine engine = anyBusyEngine();
+
+        engine.perform(true, SimplifiedAction.BOMB_AND_MOVE_RIGHT, SimplifiedAction.MOVE_UP);
+        String stateAfterFirstTurn = describe(engine);
+
+        engine.perform(true, SimplifiedAction.MOVE_DOWN, SimplifiedAction.BOMB_AND_MOVE_LEFT);
+        engine.unperform();
+
+        assertThat(describe(engine)).isEqualTo(stateAfterFirstTurn);
+    }
+
+    @Test
+    @DisplayName("copies the state of another engine into its own buffers")
+    void copiesTheStateOfAnotherEngineIntoItsOwnBuffers() {
+        HypersonicGameEngine source = anyBusyEngine();
+        source.perform(true, SimplifiedAction.BOMB_AND_MOVE_RIGHT, SimplifiedAction.MOVE_LEFT);
+        source.perform(true, SimplifiedAction.MOVE_DOWN, SimplifiedAction.BOMB_AND_STAY);
+
+        HypersonicGameEngine engine = anyBusyEngine();
+        engine.copyFrom(source);
+
+        assertThat(describe(engine)).isEqualTo(describe(source));
+        assertThat(engine.getHash()).isEqualTo(source.getHash());
+
+        String sourceState = describe(source);
+        engine.perform(true, SimplifiedAction.STAY, SimplifiedAction.STAY);
+        source.perform(true, SimplifiedAction.STAY, SimplifiedAction.STAY);
+
+        assertThat(describe(engine)).isEqualTo(describe(source));
+
+        source.unperform();
+
+        assertThat(describe(source)).isEqualTo(sourceState);
+    }
+
+    @Test
+    @DisplayName("are pooled per thread")
+    void arePooledPerThread() throws InterruptedException {
+        EnginePool pool = new EnginePool();
+        HypersonicGameEngine source = anyBusyEngine();
+
+        HypersonicGameEngine engine = pool.copyOf(source);
+        engine.perform(true, SimplifiedAction.MOVE_DOWN, SimplifiedAction.MOVE_LEFT);
+
+        assertThat(pool.copyOf(source)).isSameAs(engine);
+        assertThat(describe(engine)).isEqualTo(describe(source));
+
+        HypersonicGameEngine[] otherThreadEngine = new HypersonicGameEngine[1];
+        Thread thread = new Thread(() -> otherThreadEngine[0] = pool.copyOf(source));
+        thread.start();
+        thread.join();
+
+        assertThat(otherThreadEngine[0]).isNotSameAs(engine);
+    }
+
+    @Test
+    @DisplayName("hashes a state the same whatever the moves that led to it")
+    void hashesAStateTheSameWhateverTheMovesThatLedToIt() {
+        HypersonicGameEngine engine = anyBusyEngine();
+        HypersonicGameEngine another = anyBusyEngine();
+
+        // moving up against the board edge or a bomb is the same as staying
+        engine.perform(true, SimplifiedAction.MOVE_RIGHT, SimplifiedAction.MOVE_UP);
+        another.perform(true, SimplifiedAction.MOVE_RIGHT, SimplifiedAction.STAY);
+
+        assertThat(engine.getHash()).isEqualTo(another.getHash());
+
+        engine.perform(true, SimplifiedAction.MOVE_UP, SimplifiedAction.BOMB_AND_STAY);
+        another.perform(true, SimplifiedAction.STAY, SimplifiedAction.STAY);
+
+        assertThat(engine.getHash()).isNotEqualTo(another.getHash());
+    }
+
+    @Test
+    @DisplayName("hashes the states it plays to the same as the referee sends them next turn")
+    void hashesTheStatesItPlaysToTheSameAsTheRefereeSendsThemNextTurn() {
+        PvPGE referee = new PvPGE(
+                "..0.......0..",
+                ".............",
+                "0...........0",
+                ".............",
+                ".............",
+                ".............",
+                ".............",
+                ".............",
+                "0...........0",
+                ".............",
+                "..0.......0..");
+        InputRepository repository = new InputRepository(referee.playerInput());
+        repository.update();
+
+        HypersonicGameEngine engine = new HypersonicGameEngine(repository, repository.getBombermen());
+
+        // the player starts in a corner, bombs it and hides from the blast inwards
+        boolean left = repository.getPlayer().getCell().getX() == 0;
+        boolean top = repository.getPlayer().getCell().getY() == 0;
+        SimplifiedAction[] plan = new SimplifiedAction[10];
+        Arrays.fill(plan, SimplifiedAction.STAY);
+        plan[0] = left ? SimplifiedAction.BOMB_AND_MOVE_RIGHT : SimplifiedAction.BOMB_AND_MOVE_LEFT;
+        plan[1] = top ? SimplifiedAction.MOVE_DOWN : SimplifiedAction.MOVE_UP;
+
+        boolean placed = false;
+        boolean exploded = false;
+        for (SimplifiedAction action : plan) {
+            engine.perform(action, SimplifiedAction.STAY);
+            referee.run(new Action[] { actionOf(action) }, new Action[] { actionOf(SimplifiedAction.STAY) });
+            repository.update();
+
+            HypersonicGameEngine readAnew = new HypersonicGameEngine(repository, repository.getBombermen());
+
+            assertThat(readAnew.getStateHash()).isEqualTo(engine.getStateHash());
+
+            placed |= !engine.getBombs().isEmpty();
+            exploded |= placed && engine.getBombs().isEmpty();
+        }
+
+        assertThat(exploded).isTrue();
+        assertThat(referee.getPlayerScore()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("gets its hash back when rewound")
+    void getsItsHashBackWhenRewound() {
+        HypersonicGameEngine engine = anyBusyEngine();
+
+        long initialHash = engine.getHash();
+        int mark = engine.mark();
+
+        Random random = new Random(11);
+        SimplifiedAction[] actions = SimplifiedAction.values();
+        for (int i = 0; i < 20; i++) {
+            engine.perform(
+                    true,
+                    actions[random.nextInt(actions.length)],
+                    actions[random.nextInt(actions.length)]);
+        }
+
+        assertThat(engine.getHash()).isNotEqualTo(initialHash);
+
+        engine.rewind(mark);
+
+        assertThat(engine.getHash()).isEqualTo(initialHash);
+    }
+
+    @Test
+    @DisplayName("does not allocate while performing and rewinding turns")
+    void doesNotAllocateWhilePerformingAndRewindingTurns() {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        CellType[][] grid =
+                createGrid(
+                        ".....",
+                        ".X2X.",
+                        "..0..",
+                        ".X1X.",
+                        ".....");
+
+        List<Bomb> bombs = Collections.singletonList(new Bomb(0, 4, 4, 3, 3));
+        List<Item> items = Collections.singletonList(new Item(ItemType.EXTRA_RANGE, 0, 1));
+        HypersonicGameEngine engine = new HypersonicGameEngine(grid, bombs, items, new Bomberman(0, 0, 0, 2, 3));
+
+        SimplifiedAction[] actions = {
+                SimplifiedAction.MOVE_DOWN,
+                SimplifiedAction.BOMB_AND_MOVE_DOWN,
+                SimplifiedAction.MOVE_RIGHT,
+                SimplifiedAction.BOMB_AND_MOVE_RIGHT,
+                SimplifiedAction.MOVE_UP,
+                SimplifiedAction.STAY,
+                SimplifiedAction.STAY,
+                SimplifiedAction.STAY,
+                SimplifiedAction.STAY,
+                SimplifiedAction.STAY,
+                SimplifiedAction.MOVE_LEFT,
+                SimplifiedAction.BOMB_AND_STAY };
+
+        // lets the journal grow to its working size
+        playAndRewind(engine, actions, 100);
+
+        int times = 10_000;
+        long threadId = Thread.currentThread().getId();
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        playAndRewind(engine, actions, times);
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+        // a single object per turn would take at least 16 bytes, below one byte is the measurement's own noise
+        double allocatedPerTurn = allocated / (double) (times * actions.length);
+        assertThat(allocatedPerTurn).isLessThan(1.0);
+    }
+
+    private static void playAndRewind(HypersonicGameEngine engine, SimplifiedAction[] actions, int times) {
+        for (int i = 0; i < times; i++) {
+            int mark = engine.mark();
+            for (SimplifiedAction action : actions) {
+                engine.perform(true, action);
+            }
+            engine.rewind(mark);
+        }
+    }
+
+    private HypersonicGameEngine anyBusyEngine() {
+        CellType[][] grid =
+                createGrid(
+                        "..1.2",
+                        ".X0X.",
+                        "2...1",
+                        ".X.X.",
+                        "0.2..");
+
+        List<Bomb> bombs = Arrays.asList(new Bomb(0, 2, 2, 2, 3), new Bomb(1, 4, 3, 5, 2));
+        List<Item> items = Arrays.asList(new Item(ItemType.EXTRA_BOMB, 0, 3), new Item(ItemType.EXTRA_RANGE, 3, 0));
+        Bomberman[] bombermen = new Bomberman[] { new Bomberman(0, 0, 0, 1, 3), new Bomberman(1, 4, 4, 2, 2) };
+
+        return new HypersonicGameEngine(grid, bombs, items, bombermen);
+    }
+
+    /**
+     * @return an engine built from the engine's state, its danger map computed from scratch
+     */
+    private static HypersonicGameEngine rebuilt(HypersonicGameEngine engine) {
+        return new HypersonicGameEngine(engine.getGrid(), engine.getBombs(), engine.getItems(), engine.getBombermen());
+    }
+
+    private static int[] dangerOf(HypersonicGameEngine engine) {
+        CellType[][] grid = engine.getGrid();
+        int width = grid[0].length;
+
+        int[] danger = new int[grid.length * width];
+        for (int y = 0; y < grid.length; y++) {
+            for (int x = 0; x < width; x++) {
+                danger[y * width + x] = engine.getTurnsBeforeBlast(x, y);
+            }
+        }
+        return danger;
+    }
+
+    /**
+     * The referee only reads the simplified action
+     */
+    private static Action actionOf(SimplifiedAction action) {
+        return Action.forSimplifiedAction(action, 0, 0, 0, 0);
+    }
+
+    private static String describe(HypersonicGameEngine engine) {
+        StringBuilder description = new StringBuilder(Arrays.deepToString(engine.getGrid()))
+                .append(engine.getItems());
+
+        for (Bomb bomb : engine.getBombs()) {
+            description.append(bomb.getCell())
+                    .append(bomb.getOwner())
+                    .append(bomb.getRoundsToExplode())
+                    .append(bomb.getExplosionRange());
+        }
+
+        for (Bomberman bomberman : engine.getBombermen()) {
+            int id = bomberman.getId();
+            description.append(bomberman)
+                    .append(bomberman.getTotalAvailableBombs())
+                    .append(engine.isBombermenDead(id))
+                    .append(engine.getTotalDestroyedBoxes(id));
+        }
+
+        return description.toString();
+    }
+
     private CellType[][] createGrid(String... grid) {
         CellType[][] cellTypes = new CellType[grid.length][grid[0].length()];
 
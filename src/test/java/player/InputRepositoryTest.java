@@ -13,10 +13,12 @@ import org.junit.jupiter.api.Test;
 
 import player.Player.Bomb;
 import player.Player.Bomberman;
+import player.Player.HypersonicGameEngine;
 import player.Player.InputRepository;
 import player.Player.InputSupplier;
 import player.Player.Item;
 import player.Player.ItemType;
+import player.Player.SimplifiedAction;
 
 @DisplayName("An input repository")
 class InputRepositoryTest implements WithAssertions {
@@ -104,6 +106,97 @@ class InputRepositoryTest implements WithAssertions {
                         new Item(ItemType.EXTRA_BOMB, 2, 1));
     }
 
+    @Test
+    @DisplayName("builds engines with the state it read")
+    void buildsEnginesWithTheStateItRead() {
+        InputSupplier inputSupplier =
+                state.withGrid(
+                        ".1.",
+                        "2X0",
+                        ".0.")
+                        .withBombermans(anyBombermanWith(0, 0, 0))
+                        .withBombs(new Bomb(0, 2, 0, 3, 3))
+                        .withItems(new Item(ItemType.EXTRA_BOMB, 0, 2))
+                        .toInputSupplier();
+
+        InputRepository repository = new InputRepository(inputSupplier);
+        repository.update();
+
+        HypersonicGameEngine engine = new HypersonicGameEngine(repository, repository.getPlayer());
+        HypersonicGameEngine fromViews =
+                new HypersonicGameEngine(
+                        repository.getGrid(),
+                        repository.getBombs(),
+                        repository.getItems(),
+                        repository.getPlayer());
+
+        assertThat(engine.getGrid()).isEqualTo(repository.getGrid());
+        assertThat(engine.getBombs()).containsOnly(new Bomb(0, 2, 0, 3, 3));
+        assertThat(engine.getItems()).containsOnly(new Item(ItemType.EXTRA_BOMB, 0, 2));
+        assertThat(engine.getHash()).isEqualTo(fromViews.getHash());
+    }
+
+    @Test
+    @DisplayName("resets engines to the state it read")
+    void resetsEnginesToTheStateItRead() {
+        InputSupplier inputSupplier =
+                state.withGrid(
+                        ".1.",
+                        "2X0",
+                        ".0.")
+                        .withBombermans(anyBombermanWith(0, 0, 0))
+                        .withBombs(new Bomb(0, 2, 0, 3, 3))
+                        .withItems(new Item(ItemType.EXTRA_BOMB, 0, 2))
+                        .toInputSupplier();
+
+        InputRepository repository = new InputRepository(inputSupplier);
+        repository.update();
+
+        HypersonicGameEngine engine = new HypersonicGameEngine(repository, repository.getPlayer());
+        long initialHash = engine.getHash();
+
+        for (int i = 0; i < 4; i++) {
+            engine.perform(true, SimplifiedAction.BOMB_AND_MOVE_DOWN);
+        }
+
+        assertThat(engine.resetTo(repository, repository.getPlayer())).isTrue();
+        assertThat(engine.getHash()).isEqualTo(initialHash);
+        assertThat(engine.getGrid()).isEqualTo(repository.getGrid());
+        assertThat(engine.getBombs()).containsOnly(new Bomb(0, 2, 0, 3, 3));
+        assertThat(engine.getItems()).containsOnly(new Item(ItemType.EXTRA_BOMB, 0, 2));
+        assertThat(engine.getBombermen()).containsExactly(repository.getPlayer());
+    }
+
+    @Test
+    @DisplayName("leaves engines built on another grid as they are")
+    void leavesEnginesBuiltOnAnotherGridAsTheyAre() {
+        InputRepository repository = new InputRepository(
+                state.withGrid(
+                        "...",
+                        ".X.",
+                        "...")
+                        .withBombermans(anyBombermanWith(0, 0, 0))
+                        .toInputSupplier());
+        repository.update();
+
+        InputRepository other = new InputRepository(
+                new InputSupplierState()
+                        .withGrid(
+                                "...",
+                                "...",
+                                "...")
+                        .withBombermans(anyBombermanWith(0, 0, 0))
+                        .toInputSupplier());
+        other.update();
+
+        HypersonicGameEngine engine = new HypersonicGameEngine(repository, repository.getPlayer());
+        engine.perform(true, SimplifiedAction.MOVE_RIGHT);
+        long hash = engine.getHash();
+
+        assertThat(engine.resetTo(other, other.getPlayer())).isFalse();
+        assertThat(engine.getHash()).isEqualTo(hash);
+    }
+
     private static Bomberman anyBombermanWith(int id, int x, int y) {
         return new Bomberman(id, x, y, 1, 3);
     }
@@ -90,6 +90,17 @@ public class InputSupplierState {
         return new ToInputStream(this);
     }
 
+    /**
+     * Reads this state first, then the grid and entities of the next ones, one turn each
+     */
+    public InputSupplier toInputSupplier(InputSupplierState... nextTurns) {
+        ToInputStream input = new ToInputStream(this);
+        for (InputSupplierState nextTurn : nextTurns) {
+            input.addTurn(nextTurn);
+        }
+        return input;
+    }
+
     private static class ToInputStream implements InputSupplier {
 
         private final Queue<String> stringQueue;
@@ -104,6 +115,10 @@ public class InputSupplierState {
             intQueue.add(state.myId);
             stringQueue.add("");
 
+            addTurn(state);
+        }
+
+        void addTurn(InputSupplierState state) {
             Collections.addAll(stringQueue, state.grid);
 
             intQueue.add(state.bombermen.size() + state.bombs.size() + state.items.size());
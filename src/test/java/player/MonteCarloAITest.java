@@ -0,0 +1,64 @@
+package player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import player.Player.AI;
+import player.Player.Action;
+import player.Player.InputRepository;
+import player.Player.MonteCarloAI;
+
+@DisplayName("A Monte Carlo AI")
+class MonteCarloAITest implements SearchAIFixture {
+
+    @Test
+    @DisplayName("plays the same moves with the same random sequence")
+    void playsTheSameMovesWithTheSameRandomSequence() {
+        AI ai = anyMonteCarloAI(new Random(7), 0L, 0L);
+        AI another = anyMonteCarloAI(new Random(7), 0L, 0L);
+
+        assertThat(play(another, 10)).containsExactlyElementsOf(play(ai, 10));
+    }
+
+    @Test
+    @DisplayName("plays out as many plans as it is told to without a time budget")
+    void playsOutAsManyPlansAsItIsToldToWithoutATimeBudget() {
+        MonteCarloAI ai = anyMonteCarloAI(new Random(7), 0L, 0L);
+
+        ai.play();
+
+        assertThat(ai.getPlayedOut()).isEqualTo(500);
+    }
+
+    @Test
+    @DisplayName("searches for as long as its time budget allows")
+    void searchesForAsLongAsItsTimeBudgetAllows() {
+        MonteCarloAI ai = anyMonteCarloAI(new Random(7), FIRST_TURN_BUDGET, TURN_BUDGET);
+
+        // past the first iteration, which always runs, with no bound on the others
+        assertSearchesAsLongAsItsBudgetsAllow(ai, ai::getPlayedOut, 2, Integer.MAX_VALUE);
+    }
+
+    private static MonteCarloAI anyMonteCarloAI(Random random, long firstTurnBudget, long turnBudget) {
+        InputRepository repository = new InputRepository(new InputSupplierState().toInputSupplier());
+        repository.update();
+
+        return new MonteCarloAI(16, 500, Math.sqrt(2), repository, EVALUATION, random, firstTurnBudget, turnBudget);
+    }
+
+    private static List<String> play(AI ai, int times) {
+        List<String> moves = new ArrayList<>();
+
+        for (int i = 0; i < times; i++) {
+            for (Action action : ai.play()) {
+                moves.add(action.asString());
+            }
+        }
+
+        return moves;
+    }
+}
@@ -0,0 +1,59 @@
+package player;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import player.Player.Bomberman;
+import player.Player.GreedyOpponents;
+import player.Player.HypersonicGameEngine;
+import player.Player.InputRepository;
+import player.Player.OpponentPolicy;
+import player.Player.SimplifiedAction;
+
+@DisplayName("An opponent policy")
+class OpponentPolicyTest implements WithAssertions {
+
+    @Test
+    @DisplayName("by greed places a bomb where the opponent stands, then runs from its blast")
+    void byGreedPlacesABombWhereTheOpponentStandsThenRunsFromItsBlast() {
+        InputRepository repository = new InputRepository(
+                new InputSupplierState()
+                        .withGrid(
+                                ".....",
+                                ".X.X.",
+                                ".....")
+                        .withBombermans(new Bomberman(0, 0, 0, 1, 2), new Bomberman(1, 2, 1, 1, 2))
+                        .toInputSupplier());
+        repository.update();
+
+        HypersonicGameEngine engine = new HypersonicGameEngine(repository, repository.getBombermen());
+        Bomberman opponent = engine.getBombermen()[1];
+        OpponentPolicy policy = new GreedyOpponents();
+
+        assertThat(policy.act(engine, opponent)).isEqualTo(SimplifiedAction.BOMB_AND_STAY);
+
+        engine.perform(true, SimplifiedAction.STAY, new SimplifiedAction[] { SimplifiedAction.BOMB_AND_STAY });
+
+        // blocks on its left and right, so it can only run up or down
+        assertThat(policy.act(engine, opponent)).isIn(SimplifiedAction.MOVE_UP, SimplifiedAction.MOVE_DOWN);
+    }
+
+    @Test
+    @DisplayName("by greed stays when the opponent has no bomb left and no blast comes")
+    void byGreedStaysWhenTheOpponentHasNoBombLeftAndNoBlastComes() {
+        InputRepository repository = new InputRepository(
+                new InputSupplierState()
+                        .withGrid(
+                                ".....",
+                                ".X.X.",
+                                ".....")
+                        .withBombermans(new Bomberman(0, 0, 0, 1, 2), new Bomberman(1, 2, 1, 0, 2))
+                        .toInputSupplier());
+        repository.update();
+
+        HypersonicGameEngine engine = new HypersonicGameEngine(repository, repository.getBombermen());
+
+        assertThat(new GreedyOpponents().act(engine, engine.getBombermen()[1])).isEqualTo(SimplifiedAction.STAY);
+    }
+}
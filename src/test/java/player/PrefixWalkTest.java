@@ -0,0 +1,206 @@
+package player;
+
+import java.util.Random;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import player.Player.HypersonicGameEngine;
+import player.Player.InputRepository;
+import player.Player.PrefixWalk;
+import player.Player.RoundEvaluation;
+import player.Player.RoundStats;
+import player.Player.SimplifiedAction;
+import player.Player.StayOpponents;
+
+@DisplayName("A prefix walk")
+class PrefixWalkTest implements WithAssertions {
+
+    private static final int GENES = 12;
+
+    private static final SimplifiedAction[] POSSIBLE_ACTIONS = SimplifiedAction.values();
+
+    private static final RoundEvaluation EVALUATION =
+            (before, after, round, rounds) -> after.isDead() ? 0.0 : (rounds - round) * after.getDegreesOfFreedom();
+
+    // the player has at most four places to move to, whatever the round
+    private static final RoundEvaluation FREEDOM = new RoundEvaluation() {
+        @Override
+        public double evaluate(RoundStats before, RoundStats after, int round, int rounds) {
+            return after.isDead() ? 0.0 : after.getDegreesOfFreedom();
+        }
+
+        @Override
+        public double bound(RoundStats stats, int round, int rounds) {
+            return 4.0 * (rounds - round);
+        }
+    };
+
+    @Test
+    @DisplayName("scores chromosomes sharing prefixes as a walk of each one alone from the root does")
+    void scoresChromosomesSharingPrefixesAsAWalkOfEachOneAloneFromTheRootDoes() {
+        HypersonicGameEngine engine = anyEngine();
+        long hash = engine.getHash();
+
+        // half of the chromosomes start with the genes of an earlier one
+        Random random = new Random(7);
+        byte[][] chromosomes = new byte[64][];
+        for (int i = 0; i < chromosomes.length; i++) {
+            chromosomes[i] = randomGenes(random);
+            if (i > 0 && random.nextBoolean()) {
+                System.arraycopy(chromosomes[random.nextInt(i)], 0, chromosomes[i], 0, random.nextInt(GENES));
+            }
+        }
+
+        PrefixWalk walk = new PrefixWalk(EVALUATION, new StayOpponents(), GENES);
+        double[] scores = new double[chromosomes.length];
+        walk.start(engine);
+        for (int i = 0; i < chromosomes.length; i++) {
+            scores[i] = walk.evaluate(chromosomes[i].clone(), 0, Double.NEGATIVE_INFINITY);
+        }
+        walk.finish();
+
+        assertThat(engine.getHash()).isEqualTo(hash);
+        for (int i = 0; i < chromosomes.length; i++) {
+            assertThat(scores[i]).isEqualTo(scoreAlone(engine, EVALUATION, chromosomes[i]));
+        }
+    }
+
+    @Test
+    @DisplayName("resumes a chromosome from the snapshot another one left on their shared prefix")
+    void resumesAChromosomeFromTheSnapshotAnotherOneLeftOnTheirSharedPrefix() {
+        HypersonicGameEngine engine = anyEngine();
+        CountingEvaluation evaluation = new CountingEvaluation(EVALUATION);
+
+        byte[] first = genes(
+                SimplifiedAction.MOVE_RIGHT,
+                SimplifiedAction.MOVE_RIGHT,
+                SimplifiedAction.MOVE_DOWN,
+                SimplifiedAction.MOVE_DOWN);
+        byte[] other = genes(SimplifiedAction.MOVE_DOWN);
+        byte[] second = first.clone();
+        second[4] = (byte) SimplifiedAction.BOMB_AND_STAY.ordinal();
+
+        PrefixWalk walk = new PrefixWalk(evaluation, new StayOpponents(), GENES);
+        walk.start(engine);
+        walk.evaluate(first.clone(), 0, Double.NEGATIVE_INFINITY);
+        // leaves the path of the first chromosome, so the journal can no longer go back to its prefix
+        walk.evaluate(other.clone(), 0, Double.NEGATIVE_INFINITY);
+
+        evaluation.rounds = 0;
+        double score = walk.evaluate(second.clone(), 0, Double.NEGATIVE_INFINITY);
+        walk.finish();
+
+        // nodes are kept every four genes, so the first four are not played again
+        assertThat(evaluation.rounds).isEqualTo(GENES - 4);
+        assertThat(score).isEqualTo(scoreAlone(engine, evaluation, second));
+    }
+
+    @Test
+    @DisplayName("scores the cutoff for a plan its evaluation bounds below the cutoff")
+    void scoresTheCutoffForAPlanItsEvaluationBoundsBelowTheCutoff() {
+        HypersonicGameEngine engine = anyEngine();
+        CountingEvaluation evaluation = new CountingEvaluation(FREEDOM);
+
+        // stays in the corner, with two places to move to
+        byte[] genes = genes();
+        assertThat(scoreAlone(engine, FREEDOM, genes)).isEqualTo(2.0 * GENES);
+
+        PrefixWalk walk = new PrefixWalk(evaluation, new StayOpponents(), GENES);
+        walk.start(engine);
+        double score = walk.evaluate(genes.clone(), 0, 30.0);
+        walk.finish();
+
+        // after 10 rounds, 2 * 10 + 4 * 2 < 30
+        assertThat(score).isEqualTo(30.0);
+        assertThat(evaluation.rounds).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("scores a plan the player dies in as the genes up to its death, whatever genes follow")
+    void scoresAPlanThePlayerDiesInAsTheGenesUpToItsDeathWhateverGenesFollow() {
+        HypersonicGameEngine engine = anyEngine();
+
+        // stays on its own bomb
+        byte[] genes = genes(SimplifiedAction.BOMB_AND_STAY);
+
+        HypersonicGameEngine replay = new HypersonicGameEngine(engine);
+        RoundStats before = new RoundStats();
+        RoundStats after = new RoundStats();
+        double expected = 0.0;
+        int death = 0;
+        do {
+            before.capture(replay, false);
+            replay.perform(true, POSSIBLE_ACTIONS[genes[death]]);
+            after.capture(replay, false);
+            expected += EVALUATION.evaluate(before, after, death, GENES);
+            death++;
+        } while (!after.isDead());
+
+        assertThat(death).isLessThan(GENES);
+
+        Random random = new Random(7);
+        for (int i = 0; i < 10; i++) {
+            byte[] followed = randomGenes(random);
+            System.arraycopy(genes, 0, followed, 0, death);
+
+            assertThat(scoreAlone(engine, EVALUATION, followed)).isEqualTo(expected);
+        }
+    }
+
+    static HypersonicGameEngine anyEngine() {
+        InputRepository repository = new InputRepository(new InputSupplierState().toInputSupplier());
+        repository.update();
+
+        return new HypersonicGameEngine(repository, repository.getPlayer());
+    }
+
+    static double scoreAlone(HypersonicGameEngine engine, RoundEvaluation evaluation, byte[] genes) {
+        PrefixWalk walk = new PrefixWalk(evaluation, new StayOpponents(), genes.length);
+        walk.start(engine);
+        double score = walk.evaluate(genes.clone(), 0, Double.NEGATIVE_INFINITY);
+        walk.finish();
+        return score;
+    }
+
+    /**
+     * @return the genes of the actions, staying for the genes left
+     */
+    static byte[] genes(SimplifiedAction... actions) {
+        byte[] genes = new byte[GENES];
+        for (int i = 0; i < GENES; i++) {
+            genes[i] = (byte) (i < actions.length ? actions[i] : SimplifiedAction.STAY).ordinal();
+        }
+        return genes;
+    }
+
+    static byte[] randomGenes(Random random) {
+        byte[] genes = new byte[GENES];
+        for (int i = 0; i < GENES; i++) {
+            genes[i] = (byte) random.nextInt(SimplifiedAction.values().length);
+        }
+        return genes;
+    }
+
+    private static final class CountingEvaluation implements RoundEvaluation {
+
+        private final RoundEvaluation evaluation;
+        private int rounds;
+
+        CountingEvaluation(RoundEvaluation evaluation) {
+            this.evaluation = evaluation;
+        }
+
+        @Override
+        public double evaluate(RoundStats before, RoundStats after, int round, int rounds) {
+            this.rounds++;
+            return evaluation.evaluate(before, after, round, rounds);
+        }
+
+        @Override
+        public double bound(RoundStats stats, int round, int rounds) {
+            return evaluation.bound(stats, round, rounds);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package player;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.assertj.core.api.WithAssertions;
+
+import player.Player.AI;
+import player.Player.RoundEvaluation;
+
+/**
+ * Shared by the tests of the AIs searching until the budget of their turn runs out
+ */
+interface SearchAIFixture extends WithAssertions {
+
+    RoundEvaluation EVALUATION =
+            (before, after, round, rounds) -> after.isDead() ? 0.0 : (rounds - round) * after.getDegreesOfFreedom();
+
+    long FIRST_TURN_BUDGET = TimeUnit.MILLISECONDS.toNanos(60);
+    long TURN_BUDGET = TimeUnit.MILLISECONDS.toNanos(20);
+
+    /**
+     * Plays a first turn then another one, each taking its budget and not much longer, and searching further than
+     * the AI always does but not as far as it would with no budget
+     *
+     * @param searched how far the last turn searched
+     */
+    default void assertSearchesAsLongAsItsBudgetsAllow(AI ai, IntSupplier searched, int least, int most) {
+        long start = System.nanoTime();
+        ai.play();
+        long firstTurn = System.nanoTime() - start;
+        int firstSearched = searched.getAsInt();
+
+        start = System.nanoTime();
+        ai.play();
+        long secondTurn = System.nanoTime() - start;
+
+        assertThat(firstTurn).isBetween(FIRST_TURN_BUDGET, FIRST_TURN_BUDGET + TimeUnit.SECONDS.toNanos(1));
+        assertThat(secondTurn).isBetween(TURN_BUDGET, TURN_BUDGET + TimeUnit.SECONDS.toNanos(1));
+        assertThat(firstSearched).isBetween(least, most);
+        assertThat(searched.getAsInt()).isBetween(least, most);
+    }
+}
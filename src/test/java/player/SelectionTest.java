@@ -0,0 +1,115 @@
+package player;
+
+import java.util.Random;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import player.Player.RankSelection;
+import player.Player.RouletteSelection;
+import player.Player.Selection;
+import player.Player.TournamentSelection;
+
+@DisplayName("A selection")
+class SelectionTest implements WithAssertions {
+
+    @Test
+    @DisplayName("by roulette favours the highest scores even when they are negative")
+    void byRouletteFavoursTheHighestScoresEvenWhenTheyAreNegative() {
+        int[] selections = select(new RouletteSelection(), -300.0, -100.0, -200.0);
+
+        assertThat(selections[0]).isZero();
+        assertThat(selections[1]).isGreaterThan(selections[2]);
+    }
+
+    @Test
+    @DisplayName("by roulette picks any chromosome when all score the same")
+    void byRoulettePicksAnyChromosomeWhenAllScoreTheSame() {
+        int[] selections = select(new RouletteSelection(), -5.0, -5.0, -5.0);
+
+        assertThat(selections).doesNotContain(0);
+    }
+
+    @Test
+    @DisplayName("by tournament favours the highest scores")
+    void byTournamentFavoursTheHighestScores() {
+        int[] selections = select(new TournamentSelection(3), 10.0, -20.0, 30.0);
+
+        assertThat(selections[2]).isGreaterThan(selections[0]);
+        assertThat(selections[0]).isGreaterThan(selections[1]);
+    }
+
+    @Test
+    @DisplayName("by rank favours the highest ranks whatever the scores")
+    void byRankFavoursTheHighestRanksWhateverTheScores() {
+        int[] selections = select(new RankSelection(), 1.0, 1_000_000.0, 2.0);
+
+        assertThat(selections[1]).isGreaterThan(selections[2]);
+        assertThat(selections[2]).isGreaterThan(selections[0]);
+        // the best rank is three times as likely as the worst one, not a million times
+        assertThat(selections[0]).isGreaterThan(1000);
+    }
+
+    @Test
+    @DisplayName("by rank picks the best half of the largest population it ranks three times out of four")
+    void byRankPicksTheBestHalfOfTheLargestPopulationItRanksThreeTimesOutOfFour() {
+        int size = RankSelection.MAX_SIZE;
+        int[] ranking = new int[size];
+        for (int i = 0; i < size; i++) {
+            ranking[i] = i;
+        }
+
+        Selection selection = new RankSelection();
+        selection.rank(new double[size], ranking, size);
+
+        Random random = new Random(7);
+        int best = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (selection.select(random) < size / 2) {
+                best++;
+            }
+        }
+
+        assertThat(best).isBetween(7_300, 7_700);
+    }
+
+    @Test
+    @DisplayName("by rank refuses populations whose ranks weigh more than it can count")
+    void byRankRefusesPopulationsWhoseRanksWeighMoreThanItCanCount() {
+        int size = RankSelection.MAX_SIZE + 1;
+
+        assertThatThrownBy(() -> new RankSelection().rank(new double[size], new int[size], size))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static int[] select(Selection selection, double... scores) {
+        int[] ranking = rank(scores);
+        selection.rank(scores, ranking, scores.length);
+
+        Random random = new Random(7);
+        int[] selections = new int[scores.length];
+        for (int i = 0; i < 10_000; i++) {
+            selections[selection.select(random)]++;
+        }
+
+        return selections;
+    }
+
+    private static int[] rank(double[] scores) {
+        int[] ranking = new int[scores.length];
+        for (int i = 0; i < ranking.length; i++) {
+            ranking[i] = i;
+        }
+
+        for (int i = 1; i < ranking.length; i++) {
+            for (int j = i; j > 0 && scores[ranking[j]] > scores[ranking[j - 1]]; j--) {
+                int swap = ranking[j];
+                ranking[j] = ranking[j - 1];
+                ranking[j - 1] = swap;
+            }
+        }
+
+        return ranking;
+    }
+}
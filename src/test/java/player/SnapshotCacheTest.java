@@ -0,0 +1,65 @@
+package player;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import player.Player.HypersonicGameEngine;
+import player.Player.SimplifiedAction;
+import player.Player.SnapshotCache;
+
+@DisplayName("A snapshot cache")
+class SnapshotCacheTest implements WithAssertions {
+
+    @Test
+    @DisplayName("restores the state, score and ceiling stored for a key")
+    void restoresTheStateScoreAndCeilingStoredForAKey() {
+        HypersonicGameEngine engine = PrefixWalkTest.anyEngine();
+        HypersonicGameEngine restored = new HypersonicGameEngine(engine);
+        SnapshotCache cache = new SnapshotCache(4);
+
+        engine.perform(true, SimplifiedAction.MOVE_RIGHT);
+        cache.store(42L, engine, 7.5, 9.0);
+
+        int slot = cache.find(42L);
+        cache.restore(slot, restored);
+
+        assertThat(restored.getHash()).isEqualTo(engine.getHash());
+        assertThat(cache.scoreOf(slot)).isEqualTo(7.5);
+        assertThat(cache.ceilingOf(slot)).isEqualTo(9.0);
+        assertThat(cache.find(43L)).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("evicts the least recently used snapshot first")
+    void evictsTheLeastRecentlyUsedSnapshotFirst() {
+        HypersonicGameEngine engine = PrefixWalkTest.anyEngine();
+        SnapshotCache cache = new SnapshotCache(2);
+
+        cache.store(1L, engine, 1.0, 1.0);
+        cache.store(2L, engine, 2.0, 2.0);
+        // finding a snapshot makes it the most recently used
+        cache.find(1L);
+        cache.store(3L, engine, 3.0, 3.0);
+
+        assertThat(cache.find(2L)).isEqualTo(-1);
+        assertThat(cache.scoreOf(cache.find(1L))).isEqualTo(1.0);
+        assertThat(cache.scoreOf(cache.find(3L))).isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("still finds the keys probed past an evicted one")
+    void stillFindsTheKeysProbedPastAnEvictedOne() {
+        HypersonicGameEngine engine = PrefixWalkTest.anyEngine();
+        SnapshotCache cache = new SnapshotCache(2);
+
+        // a capacity of 2 has 8 buckets, so these keys all probe from the same one
+        cache.store(1L, engine, 1.0, 1.0);
+        cache.store(9L, engine, 9.0, 9.0);
+        cache.store(17L, engine, 17.0, 17.0);
+
+        assertThat(cache.find(1L)).isEqualTo(-1);
+        assertThat(cache.scoreOf(cache.find(9L))).isEqualTo(9.0);
+        assertThat(cache.scoreOf(cache.find(17L))).isEqualTo(17.0);
+    }
+}
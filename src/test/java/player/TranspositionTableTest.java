@@ -0,0 +1,45 @@
+package player;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import player.Player.TranspositionTable;
+
+@DisplayName("A transposition table")
+class TranspositionTableTest implements WithAssertions {
+
+    @Test
+    @DisplayName("returns the score stored for a hash")
+    void returnsTheScoreStoredForAHash() {
+        TranspositionTable table = new TranspositionTable(16);
+
+        table.put(42L, 7.5);
+
+        assertThat(table.get(42L)).isEqualTo(7.5);
+        assertThat(table.get(43L)).isNaN();
+    }
+
+    @Test
+    @DisplayName("keeps only the latest of two hashes sharing a slot")
+    void keepsOnlyTheLatestOfTwoHashesSharingASlot() {
+        TranspositionTable table = new TranspositionTable(16);
+
+        table.put(1L, 1.0);
+        table.put(17L, 2.0);
+
+        assertThat(table.get(1L)).isNaN();
+        assertThat(table.get(17L)).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("forgets every score when cleared")
+    void forgetsEveryScoreWhenCleared() {
+        TranspositionTable table = new TranspositionTable(16);
+
+        table.put(42L, 7.5);
+        table.clear();
+
+        assertThat(table.get(42L)).isNaN();
+    }
+}